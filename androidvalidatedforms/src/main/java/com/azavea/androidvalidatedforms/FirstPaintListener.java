@@ -0,0 +1,12 @@
+package com.azavea.androidvalidatedforms;
+
+/**
+ * Notified when a form is first drawn, which may be before all of it is ready when it is rendered progressively; see
+ * {@link FormController#setProgressiveRendering(boolean)}.
+ * <p/>
+ * A {@link FormActivity} or {@link FormWithAppCompatActivity} that implements this interface is notified itself;
+ * another listener can be set with their {@code setFirstPaintListener} methods.
+ */
+public interface FirstPaintListener {
+    void formFirstPaintCallback();
+}
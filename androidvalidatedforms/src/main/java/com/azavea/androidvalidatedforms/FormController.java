@@ -1,23 +1,43 @@
 package com.azavea.androidvalidatedforms;
 
 import android.content.Context;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.support.v4.view.ViewCompat;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.util.DisplayMetrics;
 import android.util.Log;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
 
 import com.azavea.androidvalidatedforms.controllers.FormSectionController;
 import com.azavea.androidvalidatedforms.controllers.LabeledFieldController;
 import com.azavea.androidvalidatedforms.FormModelEnclosure.FormModel;
+import com.azavea.androidvalidatedforms.validations.HibernateValidatorInstance;
 import com.azavea.androidvalidatedforms.validations.PerFieldValidationErrorDisplay;
 import com.azavea.androidvalidatedforms.validations.ValidationError;
+import com.azavea.androidvalidatedforms.validations.SectionValidationErrorDisplay;
 import com.azavea.androidvalidatedforms.validations.ValidationErrorDisplay;
 
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.Path;
+import javax.validation.Validator;
+
 /**
  * <code>FormController</code> is the main class that manages the form elements of NexusDialog. It provides simple APIs
  * to quickly create and manage form fields. Typically, an instance of this class is created within an Activity or Fragment.
@@ -35,7 +55,23 @@ public class FormController {
 
     private final Context context;
     private ValidationErrorDisplay validationErrorDisplay;
+    private boolean failFastValidation = true;
+    private ViewGroup containerView;
+    private final List<View> attachedViews = new ArrayList<View>();
+    private boolean preInflateViews = false;
+    private int attachChunkSize = 0;
+    private boolean progressiveRendering = false;
+    private long frameTimeBudgetNanos = DEFAULT_FRAME_TIME_BUDGET_MS * 1000000L;
+    private ViewAttacher viewAttacher;
+    private final List<Runnable> viewsAttachedCallbacks = new ArrayList<Runnable>();
+    private FormRecyclerAdapter recyclerAdapter;
+    private final RefreshScheduler refreshScheduler = new RefreshScheduler();
+    private float beanValidationThreshold = DEFAULT_BEAN_VALIDATION_THRESHOLD;
+    private boolean recyclerRendering = false;
+    private static Handler inflaterHandler;
     private static final AtomicInteger nextGeneratedViewId = new AtomicInteger(1);
+    private static final float DEFAULT_BEAN_VALIDATION_THRESHOLD = 0.5f;
+    private static final long DEFAULT_FRAME_TIME_BUDGET_MS = 8;
 
     public FormController(Context context, Object modelObj) {
         this.context = context;
@@ -129,6 +165,17 @@ public class FormController {
         return null;
     }
 
+    /**
+     * Returns the section with the specified name, or throws if there is none.
+     */
+    private FormSectionController requireSection(String name) {
+        FormSectionController section = getSection(name);
+        if (section == null) {
+            throw new IllegalArgumentException("No section named " + name);
+        }
+        return section;
+    }
+
     /**
      * Adds the specified section to the form.
      *
@@ -180,7 +227,8 @@ public class FormController {
     }
 
     /**
-     * Refreshes the view of all elements in this form to reflect current model values
+     * Refreshes the view of all elements in this form to reflect current model values. Displayed elements are
+     * refreshed at the next frame; see {@link #flushRefreshes()}.
      */
     public void refreshElements() {
         for (FormSectionController section : getSections()) {
@@ -188,6 +236,23 @@ public class FormController {
         }
     }
 
+    /**
+     * Refreshes right away the views of all elements with a pending refresh, instead of waiting for the next frame.
+     * Must be called on the main thread.
+     */
+    public void flushRefreshes() {
+        refreshScheduler.flush();
+    }
+
+    /**
+     * Refreshes the view of the elements in a single section to reflect current model values.
+     *
+     * @param name  the name of the section to refresh
+     */
+    public void refreshSection(String name) {
+        requireSection(name).refresh();
+    }
+
     /**
      * Returns a list of validation errors of the form's input
      *
@@ -196,34 +261,221 @@ public class FormController {
     public List<ValidationError> validateInput() {
         Log.d("FormController", "Running validateInput");
 
+        flushPendingValues();
+        validateDirtyFieldsTogether();
+
         List<ValidationError> errors = new ArrayList<ValidationError>();
 
+        for (FormSectionController section : getSections()) {
+            errors.addAll(section.validateInput());
+        }
+
+        return errors;
+    }
+
+    /**
+     * Commits the values entered in the form but not set on the model yet, such as text the user is still typing in
+     * a long text field, so that validation sees them. Pending values can only be read on the main thread; validation
+     * run in the background relies on
+     * {@link com.azavea.androidvalidatedforms.tasks.ValidationTask} having flushed them before it started.
+     */
+    private void flushPendingValues() {
+        getModel().flushPendingValuesOnMainThread();
+    }
+
+    /**
+     * When enough fields have changed since they were last validated, validate the whole model object in a single
+     * pass and hand each changed field the violations for its property, instead of validating each property on its
+     * own. Does nothing if too few fields have changed.
+     */
+    private void validateDirtyFieldsTogether() {
+        List<LabeledFieldController> dirtyFields = new ArrayList<LabeledFieldController>();
+        int fieldCount = 0;
         for (FormSectionController section : getSections()) {
             for (FormElementController element : section.getElements()) {
                 if (element instanceof LabeledFieldController) {
+                    fieldCount++;
                     LabeledFieldController field = (LabeledFieldController)element;
-                    errors.addAll(field.validateInput());
+                    // fields restored with the result stored for their value, as after a restart, are not dirty
+                    if (field.isValidationNeeded() && !field.restoreValidationResult()) {
+                        dirtyFields.add(field);
+                    }
                 }
             }
         }
 
-        return errors;
+        if (dirtyFields.size() < 2 || dirtyFields.size() < fieldCount * beanValidationThreshold) {
+            return;
+        }
+
+        Validator validator = HibernateValidatorInstance.getValidator();
+        Set<ConstraintViolation<Object>> violations = validator.validate(getModel().getBackingModelObject());
+
+        Map<String, List<ConstraintViolation<?>>> violationsByProperty = new HashMap<String, List<ConstraintViolation<?>>>();
+        for (ConstraintViolation<Object> violation : violations) {
+            // only keep violations directly on a property; validating a single property does not cascade into
+            // nested objects or check class-level constraints, so neither may the single pass
+            Iterator<Path.Node> nodes = violation.getPropertyPath().iterator();
+            if (!nodes.hasNext()) {
+                continue;
+            }
+            String property = nodes.next().getName();
+            if (property == null || nodes.hasNext()) {
+                continue;
+            }
+
+            List<ConstraintViolation<?>> propertyViolations = violationsByProperty.get(property);
+            if (propertyViolations == null) {
+                propertyViolations = new ArrayList<ConstraintViolation<?>>();
+                violationsByProperty.put(property, propertyViolations);
+            }
+            propertyViolations.add(violation);
+        }
+
+        List<ConstraintViolation<?>> noViolations = Collections.emptyList();
+        for (LabeledFieldController field : dirtyFields) {
+            List<ConstraintViolation<?>> fieldViolations = violationsByProperty.get(field.getName());
+            field.applyBeanViolations(fieldViolations != null ? fieldViolations : noViolations);
+        }
+    }
+
+    /**
+     * Sets the fraction of fields that must have changed since their last validation for {@link #validateInput()} to
+     * validate the whole model object in one pass, instead of validating each changed field separately. Default is 0.5.
+     *
+     * @param threshold the fraction of changed fields, between 0 and 1. Use a value above 1 to always validate fields
+     *                  separately.
+     */
+    public void setBeanValidationThreshold(float threshold) {
+        this.beanValidationThreshold = threshold;
+    }
+
+    /**
+     * Returns the fraction of changed fields at which {@link #validateInput()} validates the whole model object at once.
+     *
+     * @return the fraction of changed fields
+     */
+    public float getBeanValidationThreshold() {
+        return beanValidationThreshold;
+    }
+
+    /**
+     * Returns a list of validation errors of the input in a single section. Only the fields of that section are
+     * validated, so this can be used to validate a section as the user leaves it.
+     *
+     * @param name  the name of the section to validate
+     * @return      a list of validation errors of the section's input
+     */
+    public List<ValidationError> validateSection(String name) {
+        FormSectionController section = requireSection(name);
+        flushPendingValues();
+        return section.validateInput();
+    }
+
+    /**
+     * Indicates if the current user input in a single section is valid.
+     *
+     * @param name  the name of the section to validate
+     * @return      true if the section's input is valid, otherwise false
+     */
+    public boolean isValidSection(String name) {
+        FormSectionController section = requireSection(name);
+        flushPendingValues();
+        return section.isValidInput();
     }
 
     /**
      * Indicates if the current user input is valid.
+     * <p/>
+     * In fail-fast mode (the default), this stops at the first invalid field, checking the fields that failed their
+     * last validation first. The full list of errors is then only built by {@link #validateInput()} when it is needed,
+     * such as by {@link #showValidationErrors()}.
      *
      * @return  true if the current user input is valid, otherwise false
      */
     public boolean isValidInput() {
-        return validateInput().isEmpty();
+        flushPendingValues();
+        if (!failFastValidation) {
+            return validateInput().isEmpty();
+        }
+
+        return FormSectionController.isValidInput(getSections());
+    }
+
+    /**
+     * Sets whether {@link #isValidInput()} stops at the first validation error. Default is true.
+     *
+     * @param failFast  if true, stop validating at the first invalid field; otherwise, validate every field
+     */
+    public void setFailFastValidation(boolean failFast) {
+        this.failFastValidation = failFast;
+    }
+
+    /**
+     * Indicates whether {@link #isValidInput()} stops at the first validation error.
+     *
+     * @return  true if fail-fast validation is enabled, otherwise false
+     */
+    public boolean isFailFastValidation() {
+        return failFastValidation;
     }
 
     /**
      * Shows an appropriate error message if there are validation errors in the form's input.
      */
     public void showValidationErrors() {
-        validationErrorDisplay.showErrors(validateInput());
+        List<ValidationError> errors = validateInput();
+        for (FormSectionController section : getSections()) {
+            expandIfHasErrors(section, errors);
+        }
+        validationErrorDisplay.showErrors(errors);
+    }
+
+    /**
+     * Shows an appropriate error message if there are validation errors in a single section's input.
+     *
+     * @param name  the name of the section to show errors for
+     */
+    public void showSectionValidationErrors(String name) {
+        FormSectionController section = requireSection(name);
+        List<ValidationError> errors = validateSection(name);
+        expandIfHasErrors(section, errors);
+        if (validationErrorDisplay instanceof SectionValidationErrorDisplay) {
+            ((SectionValidationErrorDisplay) validationErrorDisplay).showSectionErrors(section, errors);
+        } else {
+            validationErrorDisplay.showErrors(errors);
+        }
+    }
+
+    /**
+     * Expands a collapsed section if any of the errors are on its elements, so that they can be seen.
+     */
+    private void expandIfHasErrors(FormSectionController section, List<ValidationError> errors) {
+        if (section.isExpanded() || errors.isEmpty()) {
+            return;
+        }
+        for (ValidationError error : errors) {
+            if (section.getElement(error.getFieldName()) != null) {
+                section.setExpanded(true);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Removes the validation errors displayed on the elements of a single section. Is a proxy call to
+     * {@link SectionValidationErrorDisplay#resetSectionErrors(FormSectionController)}; a display that only implements
+     * {@link ValidationErrorDisplay} has every validation error removed instead.
+     *
+     * @param name  the name of the section to remove errors from
+     */
+    public void resetSectionValidationErrors(String name) {
+        FormSectionController section = requireSection(name);
+        if (validationErrorDisplay instanceof SectionValidationErrorDisplay) {
+            ((SectionValidationErrorDisplay) validationErrorDisplay).resetSectionErrors(section);
+        } else {
+            validationErrorDisplay.resetErrors();
+        }
     }
 
     /**
@@ -250,25 +502,588 @@ public class FormController {
      * @param containerView the view container to add the form elements within
      */
     public void recreateViews(ViewGroup containerView) {
+        this.containerView = containerView;
+        this.recyclerAdapter = null;
         containerView.removeAllViews();
+        attachedViews.clear();
+        viewAttacher = null;
+
+        List<FormElementController> elements = getDisplayedElements();
+        if (progressiveRendering) {
+            // attach what fits on screen now, and stream the rest in over the following frames
+            viewAttacher = new ViewAttacher(containerView, elements);
+            viewAttacher.attachFirstScreen();
+            if (viewAttacher.isDone()) {
+                viewAttacher = null;
+            } else {
+                ViewCompat.postOnAnimation(containerView, viewAttacher);
+            }
+        } else if (attachChunkSize > 0 && elements.size() > attachChunkSize) {
+            // attach the first chunk now, and the rest over the following frames
+            viewAttacher = new ViewAttacher(containerView, elements);
+            viewAttacher.attachChunk();
+            ViewCompat.postOnAnimation(containerView, viewAttacher);
+        } else {
+            for (FormElementController element : elements) {
+                View view = element.getView();
+                containerView.addView(view);
+                attachedViews.add(view);
+            }
+        }
+
+        // now that the view is setup, register a listener of the model to update the view on changes
+        registerFormModelListener();
+
+        if (viewAttacher == null) {
+            runViewsAttachedCallbacks();
+        }
+    }
+
+    /**
+     * Sets whether the views of the form elements should be created in the background by {@link #preInflateViews()}
+     * before they are attached. Default is false.
+     *
+     * @param preInflateViews   if true, {@link com.azavea.androidvalidatedforms.tasks.DisplayFormTask} creates the
+     *                          views in the background
+     */
+    public void setPreInflateViews(boolean preInflateViews) {
+        this.preInflateViews = preInflateViews;
+    }
+
+    /**
+     * Indicates whether the views of the form elements should be created in the background before they are attached.
+     *
+     * @return true if views should be created in the background, otherwise false
+     */
+    public boolean isPreInflateViews() {
+        return preInflateViews && !recyclerRendering;
+    }
+
+    /**
+     * Sets whether the form is displayed in a {@link RecyclerView}, which creates the views of the rows on screen as
+     * they are needed, so that they are not created in the background beforehand. Set by the form activities from
+     * their layout; also set once the form is displayed in a {@code RecyclerView}.
+     *
+     * @param recyclerRendering if true, the form is displayed in a {@code RecyclerView}
+     */
+    public void setRecyclerRendering(boolean recyclerRendering) {
+        this.recyclerRendering = recyclerRendering;
+    }
+
+    /**
+     * Sets the number of element views {@link #recreateViews(ViewGroup)} attaches per frame. Splitting the attachment
+     * of a large form over several frames keeps the UI responsive while it opens. Default is 0, which attaches all
+     * the views at once.
+     *
+     * @param chunkSize the number of views to attach per frame, or 0 to attach them all at once
+     */
+    public void setAttachChunkSize(int chunkSize) {
+        this.attachChunkSize = chunkSize;
+    }
+
+    /**
+     * Sets whether {@link #recreateViews(ViewGroup)} renders the form progressively: the views that fill the first
+     * screen are attached right away, and the remaining ones are attached over the following frames, as many per
+     * frame as fit in the frame time budget. Takes precedence over {@link #setAttachChunkSize(int)}. Default is false.
+     *
+     * @param progressiveRendering  if true, render the first screen of the form first
+     */
+    public void setProgressiveRendering(boolean progressiveRendering) {
+        this.progressiveRendering = progressiveRendering;
+    }
 
+    /**
+     * Indicates whether the form is rendered progressively.
+     *
+     * @return true if the first screen is rendered first, otherwise false
+     */
+    public boolean isProgressiveRendering() {
+        return progressiveRendering;
+    }
+
+    /**
+     * Sets how long each frame may spend attaching views when rendering progressively, including the time measured to
+     * lay them out. At least one view is attached per frame regardless. Default is 8 milliseconds.
+     *
+     * @param millis    the time budget per frame, in milliseconds
+     */
+    public void setFrameTimeBudget(long millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("Frame time budget must not be negative");
+        }
+        this.frameTimeBudgetNanos = millis * 1000000L;
+    }
+
+    /**
+     * Indicates whether element views are still being attached to the container over several frames.
+     *
+     * @return true if some views have not been attached yet, otherwise false
+     */
+    public boolean isAttachingViews() {
+        return viewAttacher != null;
+    }
+
+    /**
+     * Runs the given callback once all the element views have been attached to the container: immediately if they
+     * already are, otherwise on the main thread after the last one is attached.
+     *
+     * @param callback  the callback to run
+     */
+    public void runWhenViewsAttached(Runnable callback) {
+        if (viewAttacher == null) {
+            callback.run();
+        } else {
+            viewsAttachedCallbacks.add(callback);
+        }
+    }
+
+    private void runViewsAttachedCallbacks() {
+        List<Runnable> callbacks = new ArrayList<Runnable>(viewsAttachedCallbacks);
+        viewsAttachedCallbacks.clear();
+        for (Runnable callback : callbacks) {
+            callback.run();
+        }
+    }
+
+    /**
+     * Creates the views of the displayed form elements on a background thread with a looper, so that attaching them
+     * on the main thread later is all that is left to do. Only elements that can create their view off the main
+     * thread are created here; see {@link FormElementController#canCreateViewOffMainThread()}. The views of the
+     * others are created as usual when they are attached. Does nothing when the form is displayed in a
+     * {@link RecyclerView}, which only creates the views of the rows on screen.
+     * <p/>
+     * This method blocks until the views are created, so it must not be called on the main thread.
+     */
+    public void preInflateViews() {
+        if (recyclerRendering) {
+            return;
+        }
+
+        final List<FormElementController> elements = getDisplayedElements();
+        final CountDownLatch done = new CountDownLatch(1);
+
+        getInflaterHandler().post(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (FormElementController element : elements) {
+                        if (element.canCreateViewOffMainThread() && !element.isViewCreated()) {
+                            try {
+                                element.getView();
+                            } catch (RuntimeException e) {
+                                // view will be created when it is attached instead
+                                Log.w("FormController", "Could not create view in background for " + element.getName(), e);
+                            }
+                        }
+                    }
+                } finally {
+                    done.countDown();
+                }
+            }
+        });
+
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns a handler for the thread views are created on in the background. Views may create handlers bound to the
+     * thread they are created on, so the thread is shared and never quit, keeping its looper alive for as long as the
+     * views may use it.
+     */
+    private static synchronized Handler getInflaterHandler() {
+        if (inflaterHandler == null) {
+            HandlerThread inflaterThread = new HandlerThread("FormViewInflater");
+            inflaterThread.start();
+            inflaterHandler = new Handler(inflaterThread.getLooper());
+        }
+        return inflaterHandler;
+    }
+
+    /**
+     * Attaches element views to a container over several frames: either a chunk at a time, or when rendering
+     * progressively, the first screen at once and then as many views as fit in the frame time budget.
+     */
+    private class ViewAttacher implements Runnable {
+        private final ViewGroup container;
+        private final List<FormElementController> elements;
+        private int next = 0;
+        private ViewTreeObserver observer;
+        private int attachedInFrame = 0;
+        private long attachEndNanos;
+        private long layoutNanosPerView = 0;
+
+        private final ViewTreeObserver.OnPreDrawListener layoutTimer = new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                if (attachedInFrame > 0) {
+                    // the views attached this frame have just been measured and laid out
+                    layoutNanosPerView = (System.nanoTime() - attachEndNanos) / attachedInFrame;
+                    attachedInFrame = 0;
+                }
+                return true;
+            }
+        };
+
+        ViewAttacher(ViewGroup container, List<FormElementController> elements) {
+            this.container = container;
+            this.elements = elements;
+        }
+
+        void attachChunk() {
+            int index = getInsertIndex();
+            int end = Math.min(next + attachChunkSize, elements.size());
+            while (next < end) {
+                attachNext(index++);
+            }
+        }
+
+        /**
+         * Attaches views until they fill the height of the screen.
+         */
+        void attachFirstScreen() {
+            DisplayMetrics metrics = context.getResources().getDisplayMetrics();
+            int width = container.getWidth() > 0 ? container.getWidth() : metrics.widthPixels;
+            int widthSpec = View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY);
+            int heightSpec = View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED);
+
+            int index = getInsertIndex();
+            int height = 0;
+            while (!isDone() && height < metrics.heightPixels) {
+                View view = attachNext(index++);
+                // only an estimate, as the container has not been laid out yet
+                view.measure(widthSpec, heightSpec);
+                height += view.getMeasuredHeight();
+            }
+        }
+
+        /**
+         * Attaches at least one view, then more until the frame time budget is spent. The views attached in a frame
+         * are measured and laid out later in the same frame, so the budget also covers the layout time per view
+         * measured in the previous frames.
+         */
+        void attachWithinBudget() {
+            startLayoutTimer();
+            int index = getInsertIndex();
+            long deadline = System.nanoTime() + frameTimeBudgetNanos;
+            int attached = 0;
+            do {
+                attachNext(index++);
+                attached++;
+            } while (!isDone() && System.nanoTime() + (attached + 1) * layoutNanosPerView < deadline);
+            attachedInFrame = attached;
+            attachEndNanos = System.nanoTime();
+        }
+
+        // times the layout pass that follows attaching views, which ends just before the frame is drawn
+        private void startLayoutTimer() {
+            if (observer == null) {
+                observer = container.getViewTreeObserver();
+                observer.addOnPreDrawListener(layoutTimer);
+            }
+        }
+
+        private void stopLayoutTimer() {
+            if (observer != null) {
+                if (observer.isAlive()) {
+                    observer.removeOnPreDrawListener(layoutTimer);
+                } else {
+                    container.getViewTreeObserver().removeOnPreDrawListener(layoutTimer);
+                }
+                observer = null;
+            }
+        }
+
+        private int getInsertIndex() {
+            // insert after the last attached form view, so views added to the container meanwhile stay after the form,
+            // and the first view after any views already in the container
+            if (attachedViews.isEmpty()) {
+                return container.getChildCount();
+            }
+            return container.indexOfChild(attachedViews.get(attachedViews.size() - 1)) + 1;
+        }
+
+        private View attachNext(int index) {
+            View view = elements.get(next++).getView();
+            container.addView(view, index);
+            attachedViews.add(view);
+            return view;
+        }
+
+        boolean isDone() {
+            return next >= elements.size();
+        }
+
+        @Override
+        public void run() {
+            if (viewAttacher != this) {
+                // views were recreated or updated meanwhile
+                stopLayoutTimer();
+                return;
+            }
+
+            // the budget also applies if the settings changed while attaching, so each frame makes progress
+            if (attachChunkSize > 0 && !progressiveRendering) {
+                attachChunk();
+            } else {
+                attachWithinBudget();
+            }
+            if (isDone()) {
+                stopLayoutTimer();
+                viewAttacher = null;
+                runViewsAttachedCallbacks();
+            } else {
+                ViewCompat.postOnAnimation(container, this);
+            }
+        }
+    }
+
+    /**
+     * Updates the views inside the specified <code>ViewGroup</code> after form elements have been added, removed or
+     * reordered. Unlike {@link #recreateViews(ViewGroup)}, the views of elements that are still displayed are kept,
+     * and only the views that must be added, removed or moved are touched. Views in the container that do not belong
+     * to the form are left in place.
+     *
+     * @param containerView the view container the form elements are displayed within
+     */
+    public void updateViews(ViewGroup containerView) {
+        if (this.containerView != containerView) {
+            recreateViews(containerView);
+            return;
+        }
+
+        List<FormElementController> elements = getDisplayedElements();
+        boolean wasAttaching = viewAttacher != null;
+        viewAttacher = null;
+        List<View> views = new ArrayList<View>(elements.size());
+        for (FormElementController element : elements) {
+            views.add(element.getView());
+        }
+        applyViewChanges(containerView, views);
+
+        registerFormModelListener();
+
+        if (wasAttaching) {
+            runViewsAttachedCallbacks();
+        }
+    }
+
+    /**
+     * Updates the rows of the specified <code>RecyclerView</code> after form elements have been added, removed or
+     * reordered, only rebinding the rows that changed.
+     *
+     * @param recyclerView  the view the form elements are displayed within
+     */
+    public void updateViews(RecyclerView recyclerView) {
+        if (recyclerAdapter == null || recyclerView.getAdapter() != recyclerAdapter) {
+            recreateViews(recyclerView);
+            return;
+        }
+
+        recyclerAdapter.updateElements(getDisplayedElements());
+        registerFormModelListener();
+    }
+
+    /**
+     * Makes the form views in a container match the desired views and order, with as few changes as possible.
+     * The longest run of attached views that are already in the desired order stays in place; every other desired
+     * view is moved or added after its predecessor, and attached views no longer desired are removed. Views before the
+     * first form view, such as headers, stay ahead of the form.
+     */
+    private void applyViewChanges(ViewGroup containerView, List<View> desired) {
+        Map<View, Integer> desiredIndex = new IdentityHashMap<View, Integer>();
+        for (int i = 0; i < desired.size(); i++) {
+            desiredIndex.put(desired.get(i), i);
+        }
+        Set<View> attached = Collections.newSetFromMap(new IdentityHashMap<View, Boolean>());
+        attached.addAll(attachedViews);
+
+        // desired views already in the container, in container order, and the number of views ahead of the form
+        List<View> kept = new ArrayList<View>();
+        int childCount = containerView.getChildCount();
+        int headerCount = childCount;
+        for (int i = 0; i < childCount; i++) {
+            View child = containerView.getChildAt(i);
+            boolean isDesired = desiredIndex.containsKey(child);
+            if (headerCount == childCount && (isDesired || attached.contains(child))) {
+                headerCount = i;
+            }
+            if (isDesired) {
+                kept.add(child);
+            }
+        }
+
+        Set<View> inPlace = longestOrderedRun(kept, desiredIndex);
+
+        // remove the views no longer desired and the views to move, from the end so the indices stay valid
+        for (int i = childCount - 1; i >= headerCount; i--) {
+            View child = containerView.getChildAt(i);
+            if (desiredIndex.containsKey(child) ? !inPlace.contains(child) : attached.contains(child)) {
+                containerView.removeViewAt(i);
+            }
+        }
+
+        Map<View, Integer> positions = new IdentityHashMap<View, Integer>();
+        for (int i = headerCount; i < containerView.getChildCount(); i++) {
+            View child = containerView.getChildAt(i);
+            if (inPlace.contains(child)) {
+                positions.put(child, i);
+            }
+        }
+
+        // every view added goes before all the remaining views in place, shifting each of them by one
+        int index = headerCount;
+        int added = 0;
+        for (View view : desired) {
+            Integer position = positions.get(view);
+            if (position != null) {
+                index = position + added + 1;
+            } else {
+                if (view.getParent() instanceof ViewGroup) {
+                    ((ViewGroup) view.getParent()).removeView(view);
+                }
+                containerView.addView(view, index++);
+                added++;
+            }
+        }
+
+        attachedViews.clear();
+        attachedViews.addAll(desired);
+    }
+
+    /**
+     * Returns the longest subsequence of the given views whose desired positions are increasing.
+     */
+    private static Set<View> longestOrderedRun(List<View> views, Map<View, Integer> desiredIndex) {
+        int count = views.size();
+        int[] positions = new int[count];
+        for (int i = 0; i < count; i++) {
+            positions[i] = desiredIndex.get(views.get(i));
+        }
+
+        // tails[k] is the index of the smallest last view of an increasing run of length k + 1
+        int[] tails = new int[count];
+        int[] predecessors = new int[count];
+        int length = 0;
+        for (int i = 0; i < count; i++) {
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (positions[tails[mid]] < positions[i]) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            predecessors[i] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = i;
+            if (low == length) {
+                length++;
+            }
+        }
+
+        Set<View> run = Collections.newSetFromMap(new IdentityHashMap<View, Boolean>());
+        for (int i = length > 0 ? tails[length - 1] : -1; i >= 0; i = predecessors[i]) {
+            run.add(views.get(i));
+        }
+        return run;
+    }
+
+    /**
+     * Displays the form elements that were added to this <code>FormController</code> as the rows of the specified
+     * <code>RecyclerView</code>. An element only has a view while its row is on screen: once the row scrolls off,
+     * the view is released or reused for another element of the same type; see {@link FormRecyclerAdapter}. This
+     * method should be called once the form elements have been added to this controller.
+     *
+     * @param recyclerView  the view to display the form elements within
+     */
+    public void recreateViews(RecyclerView recyclerView) {
+        List<FormElementController> elements = getDisplayedElements();
+
+        if (recyclerView.getLayoutManager() == null) {
+            recyclerView.setLayoutManager(new LinearLayoutManager(context));
+        }
+
+        if (recyclerView.getAdapter() instanceof FormRecyclerAdapter) {
+            recyclerAdapter = (FormRecyclerAdapter) recyclerView.getAdapter();
+            recyclerAdapter.setElements(elements);
+        } else {
+            recyclerAdapter = new FormRecyclerAdapter(elements);
+            recyclerView.setAdapter(recyclerAdapter);
+        }
+        this.containerView = null;
+        viewAttacher = null;
+        recyclerRendering = true;
+
+        // now that the view is setup, register a listener of the model to update the view on changes
+        registerFormModelListener();
+        runViewsAttachedCallbacks();
+    }
+
+    /**
+     * Returns the sections and elements to display, in display order, setting the form model on each.
+     * Elements of collapsed sections are not displayed, but still get the model so they can be validated.
+     */
+    private List<FormElementController> getDisplayedElements() {
+        List<FormElementController> displayed = new ArrayList<FormElementController>();
         for (FormSectionController section : getSections()) {
             ((FormElementController)section).setModel(getModel());
-            containerView.addView(section.getView());
+            ((FormElementController)section).setRefreshScheduler(refreshScheduler);
+            section.setExpansionListener(sectionExpansionListener);
+            displayed.add(section);
 
             for (FormElementController element : section.getElements()) {
                 element.setModel(getModel());
-                containerView.addView(element.getView());
+                element.setRefreshScheduler(refreshScheduler);
+                if (section.isExpanded()) {
+                    displayed.add(element);
+                }
             }
         }
-
-        // now that the view is setup, register a listener of the model to update the view on changes
-        registerFormModelListener();
+        return displayed;
     }
 
+    private FormSectionController.ExpansionListener sectionExpansionListener = new FormSectionController.ExpansionListener() {
+        @Override
+        public void onSectionExpansionChanged(FormSectionController section) {
+            List<FormElementController> elements = section.getElements();
+
+            if (recyclerAdapter != null) {
+                int position = recyclerAdapter.indexOf(section) + 1;
+                if (section.isExpanded()) {
+                    recyclerAdapter.insertElements(position, elements);
+                } else {
+                    recyclerAdapter.removeElements(position, elements.size());
+                }
+            } else if (containerView != null) {
+                // element views are created the first time the section is expanded
+                updateViews(containerView);
+            }
+        }
+    };
+
     private PropertyChangeListener modelListener = new PropertyChangeListener() {
         @Override public void propertyChange(PropertyChangeEvent event) {
-            getElement(event.getPropertyName()).refresh();
+            FormElementController element = getElement(event.getPropertyName());
+            if (element == null) {
+                return;
+            }
+
+            if (element instanceof LabeledFieldController) {
+                ((LabeledFieldController) element).setNeedsValidation();
+            }
+
+            if (event instanceof FormPropertyChangeEvent && ((FormPropertyChangeEvent) event).getOrigin() == element) {
+                // the element made this change, so it already displays the new value
+                return;
+            }
+
+            // coalesced with any other changes made during this frame
+            element.requestRefresh();
         }
     };
 }
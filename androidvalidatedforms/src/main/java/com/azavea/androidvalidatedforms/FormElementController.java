@@ -14,6 +14,7 @@ public abstract class FormElementController {
     private final String name;
     private FormModel model;
     private View view;
+    private RefreshScheduler refreshScheduler;
 
     /**
      * Constructs a new instance with the specified name.
@@ -48,6 +49,10 @@ public abstract class FormElementController {
         this.model = model;
     }
 
+    void setRefreshScheduler(RefreshScheduler refreshScheduler) {
+        this.refreshScheduler = refreshScheduler;
+    }
+
     /**
      * Returns the associated model of this form element.
      *
@@ -78,6 +83,95 @@ public abstract class FormElementController {
         return view != null;
     }
 
+    /**
+     * Indicates whether the view of this element may be created on a background thread that has a looper, before it
+     * is attached on the main thread. Only return true once the view's creation has been checked not to touch
+     * anything that must run on the main thread, such as starting an {@code AsyncTask} or creating a widget with a
+     * popup, like a {@code Spinner}. Default is false.
+     *
+     * @return true if the view can be created off the main thread, otherwise false
+     */
+    public boolean canCreateViewOffMainThread() {
+        return false;
+    }
+
+    /**
+     * Drops the view of this element, so it can be garbage collected once it is detached. A new view is created the
+     * next time {@link #getView()} is called. Used when the rows of a form are recycled.
+     */
+    void releaseView() {
+        if (view != null) {
+            onViewReleased();
+            view = null;
+        }
+    }
+
+    /**
+     * Drops the view of this element like {@link #releaseView()}, and returns it so that another element of the same
+     * class and layout can take it over with {@link #bindView(View)}.
+     *
+     * @return the view of this element, or null if it was not created
+     */
+    View unbindView() {
+        View released = view;
+        releaseView();
+        return released;
+    }
+
+    /**
+     * Takes over a view released by another element of the same class and layout, instead of creating a new one.
+     * Must only be called on elements whose {@link #canRebindView()} returns true, and that have no view.
+     *
+     * @param view  the view released by the other element
+     */
+    void bindView(View view) {
+        this.view = view;
+        onBindView(view);
+    }
+
+    /**
+     * Called when the view of this element is about to be released. The view is still attached to the element, so
+     * subclasses may read any input from it, to show it again in their next view; subclasses holding references to
+     * child views of the element's view should clear them here, and subclasses that can rebind views must remove
+     * the listeners they set on them.
+     */
+    protected void onViewReleased() {
+    }
+
+    /**
+     * Indicates whether this element can take over a view created by another element of the same class and layout,
+     * once that element has released it; see {@link #onBindView(View)}. Lets the rows of a
+     * {@link FormRecyclerAdapter} reuse the views of elements scrolled off screen. Default is false: a new view is
+     * created for the element instead.
+     *
+     * @return true if this element implements {@code onBindView}, otherwise false
+     */
+    protected boolean canRebindView() {
+        return false;
+    }
+
+    /**
+     * Returns which layout the view of this element has, among the layouts that elements of its class may create,
+     * such as a titled section or a plain separator. Only elements of the same class and layout can take over each
+     * other's views. Default is 0.
+     *
+     * @return an identifier of the layout of this element's view
+     */
+    protected int getViewLayout() {
+        return 0;
+    }
+
+    /**
+     * Called when this element takes over a view created by another element of the same class and layout, which
+     * released it. Implementations must find the child views they use, set their listeners, and show the state of
+     * this element, such as its value, input and error message. Only called if {@link #canRebindView()} returns true.
+     *
+     * @param view  the view to show this element in
+     */
+    protected void onBindView(View view) {
+        throw new UnsupportedOperationException(getClass().getName() + " cannot rebind views");
+    }
+
     /**
      * Constructs the view for this element.
      *
@@ -90,6 +184,19 @@ public abstract class FormElementController {
      */
     public abstract void refresh();
 
+    /**
+     * Requests a refresh of the view of this element. Once the element is displayed by a {@link FormController},
+     * requests are coalesced and the view is refreshed at most once per frame, on the main thread; otherwise the view
+     * is refreshed right away, if it has been created.
+     */
+    public void requestRefresh() {
+        if (refreshScheduler != null) {
+            refreshScheduler.markDirty(this);
+        } else if (isViewCreated()) {
+            refresh();
+        }
+    }
+
     /**
      * Display an error message on the element.
      *
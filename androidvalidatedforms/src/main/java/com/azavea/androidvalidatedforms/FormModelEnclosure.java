@@ -1,10 +1,22 @@
 package com.azavea.androidvalidatedforms;
 
 import android.os.Bundle;
+import android.os.Looper;
 import android.support.v4.app.Fragment;
 
+import com.azavea.androidvalidatedforms.validations.ValidationError;
+
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public class FormModelEnclosure {
     /**
@@ -12,7 +24,43 @@ public class FormModelEnclosure {
      * for form elements to retrieve their values to display to the user and persist changes to the model upon changes.
      */
     public abstract static class FormModel extends Fragment {
+        private static final String VALID_FIELD_NAMES_KEY = "android_validated_forms_valid_field_names";
+        private static final String VALID_FIELD_VALUES_KEY = "android_validated_forms_valid_field_values";
+        private static final String VALID_FIELD_REQUIRED_KEY = "android_validated_forms_valid_field_required";
+
         private final PropertyChangeSupport propertyChangeSupport = new PropertyChangeSupport(this);
+        private final Map<String, ValidationResult> validationResults = new HashMap<>();
+        private final Map<String, PendingValue> pendingValues = new HashMap<>();
+
+        /**
+         * A value entered in a form element but not set on the model yet, such as text that is only set once the
+         * user pauses typing.
+         */
+        public interface PendingValue {
+            /**
+             * Sets the pending value on the model.
+             */
+            void commit();
+        }
+
+        /**
+         * The result of the last validation of a field, with a copy of the value that was validated.
+         */
+        private static class ValidationResult {
+            final Serializable value;
+            final boolean required;
+            final List<ValidationError> errors;
+
+            ValidationResult(Serializable value, boolean required, List<ValidationError> errors) {
+                this.value = value;
+                this.required = required;
+                this.errors = errors;
+            }
+
+            boolean isFor(Object value, boolean required) {
+                return this.required == required && (this.value == null ? value == null : this.value.equals(value));
+            }
+        }
 
         public FormModel() {}
 
@@ -35,7 +83,8 @@ public class FormModelEnclosure {
         protected abstract Object getBackingValue(String name);
 
         /**
-         * Return backing model object.
+         * Return backing model object. Implementations should call {@link #flushPendingValuesOnMainThread()} first,
+         * so that the object holds the values still pending when it is read on the main thread.
          *
          * @return model object holding the data for this form
          */
@@ -50,19 +99,197 @@ public class FormModelEnclosure {
         public abstract Class getBackingModelClass(String name);
 
         /**
-         * Returns the value for the specified field name.
+         * Returns the value for the specified field name. On the main thread, a value pending for the field is
+         * committed first; other threads only see the values committed before.
          *
          * @param name the field name
          * @return the value currently set for the specified field name
          */
         public final Object getValue(String name) {
+            if (isMainThread()) {
+                PendingValue pending;
+                synchronized (pendingValues) {
+                    // removed before committing, so that reading the value while committing it does not recurse
+                    pending = pendingValues.isEmpty() ? null : pendingValues.remove(name);
+                }
+                if (pending != null) {
+                    pending.commit();
+                }
+            }
             return getBackingValue(name);
         }
 
+        /**
+         * Registers a value that a form element will set on the model later. A pending value is committed when its
+         * element commits it, when its field is read on the main thread, or when pending values are flushed, such as
+         * before validating the form or reading the backing model object.
+         *
+         * @param name      the field name the value is pending for
+         * @param pending   the pending value, or null once it has been committed
+         */
+        public void setPendingValue(String name, PendingValue pending) {
+            synchronized (pendingValues) {
+                if (pending != null) {
+                    pendingValues.put(name, pending);
+                } else {
+                    pendingValues.remove(name);
+                }
+            }
+        }
+
+        /**
+         * Commits every pending value to the model. Must be called on the main thread, for example before reading
+         * the model from a background thread.
+         */
+        public void flushPendingValues() {
+            List<PendingValue> pending;
+            synchronized (pendingValues) {
+                if (pendingValues.isEmpty()) {
+                    return;
+                }
+                pending = new ArrayList<>(pendingValues.values());
+                pendingValues.clear();
+            }
+            for (PendingValue value : pending) {
+                value.commit();
+            }
+        }
+
+        /**
+         * Commits every pending value to the model like {@link #flushPendingValues()}, if called on the main thread.
+         * Pending values cannot be committed from other threads, which must rely on them having been flushed before.
+         */
+        protected final void flushPendingValuesOnMainThread() {
+            if (isMainThread()) {
+                flushPendingValues();
+            }
+        }
+
+        private static boolean isMainThread() {
+            return Looper.myLooper() == Looper.getMainLooper();
+        }
+
         @Override
         public void onCreate(Bundle savedInstanceState) {
             super.onCreate(savedInstanceState);
             setRetainInstance(true);
+
+            if (savedInstanceState != null) {
+                // validation errors cannot be persisted, but which fields were valid for which values can be
+                String[] names = savedInstanceState.getStringArray(VALID_FIELD_NAMES_KEY);
+                Serializable values = savedInstanceState.getSerializable(VALID_FIELD_VALUES_KEY);
+                boolean[] required = savedInstanceState.getBooleanArray(VALID_FIELD_REQUIRED_KEY);
+                if (names != null && values instanceof Serializable[] && required != null
+                        && ((Serializable[]) values).length == names.length && required.length == names.length) {
+                    Serializable[] valueArray = (Serializable[]) values;
+                    List<ValidationError> noErrors = Collections.emptyList();
+                    synchronized (validationResults) {
+                        for (int i = 0; i < names.length; i++) {
+                            validationResults.put(names[i], new ValidationResult(valueArray[i], required[i], noErrors));
+                        }
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void onSaveInstanceState(Bundle outState) {
+            super.onSaveInstanceState(outState);
+            flushPendingValues();
+
+            List<String> names = new ArrayList<>();
+            List<ValidationResult> results = new ArrayList<>();
+            synchronized (validationResults) {
+                for (Map.Entry<String, ValidationResult> entry : validationResults.entrySet()) {
+                    if (entry.getValue().errors.isEmpty()) {
+                        names.add(entry.getKey());
+                        results.add(entry.getValue());
+                    }
+                }
+            }
+
+            Serializable[] values = new Serializable[results.size()];
+            boolean[] required = new boolean[results.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = results.get(i).value;
+                required[i] = results.get(i).required;
+            }
+            outState.putStringArray(VALID_FIELD_NAMES_KEY, names.toArray(new String[names.size()]));
+            outState.putSerializable(VALID_FIELD_VALUES_KEY, values);
+            outState.putBooleanArray(VALID_FIELD_REQUIRED_KEY, required);
+        }
+
+        /**
+         * Stores the result of validating a field, so it can be reused after the form is recreated. Results are only
+         * kept for values that cannot change without being replaced, such as strings, numbers and booleans, and for
+         * dates, of which a copy is kept; any other value is validated again.
+         *
+         * @param name      the field name
+         * @param value     the field's value when it was validated
+         * @param required  whether the field was required when it was validated
+         * @param errors    the validation errors found for that value
+         */
+        public void putValidationResult(String name, Object value, boolean required, List<ValidationError> errors) {
+            synchronized (validationResults) {
+                if (!isStorableValue(value)) {
+                    validationResults.remove(name);
+                    return;
+                }
+                validationResults.put(name, new ValidationResult(copyValue(value), required, errors));
+            }
+        }
+
+        /**
+         * Returns the stored result of validating a field, if it was validated for an equal value and with the same
+         * required flag.
+         *
+         * @param name      the field name
+         * @param value     the field's current value
+         * @param required  whether the field is required
+         * @return the validation errors stored for the field, or null if there is no result for that value
+         */
+        public List<ValidationError> getValidationResult(String name, Object value, boolean required) {
+            synchronized (validationResults) {
+                ValidationResult result = validationResults.get(name);
+                if (result != null && result.isFor(value, required)) {
+                    return result.errors;
+                }
+                return null;
+            }
+        }
+
+        /**
+         * Indicates whether a validated value can be stored to be compared with later values. Values that could be
+         * changed in place would always equal the stored value, so only immutable types and dates are stored.
+         */
+        private static boolean isStorableValue(Object value) {
+            return value == null || value instanceof String || value instanceof Boolean || value instanceof Character
+                    || value instanceof Integer || value instanceof Long || value instanceof Double
+                    || value instanceof Float || value instanceof Short || value instanceof Byte
+                    || value instanceof BigDecimal || value instanceof BigInteger
+                    || (value != null && value.getClass() == Date.class);
+        }
+
+        private static Serializable copyValue(Object value) {
+            if (value instanceof Date) {
+                return new Date(((Date) value).getTime());
+            }
+            return (Serializable) value;
+        }
+
+        /**
+         * Copies the stored validation results from another model, such as one retained across a configuration change.
+         *
+         * @param other the model to copy validation results from
+         */
+        public void copyValidationResults(FormModel other) {
+            Map<String, ValidationResult> otherResults;
+            synchronized (other.validationResults) {
+                otherResults = new HashMap<>(other.validationResults);
+            }
+            synchronized (validationResults) {
+                validationResults.putAll(otherResults);
+            }
         }
 
         /**
@@ -73,13 +300,114 @@ public class FormModelEnclosure {
          * @param newValue the value to set
          */
         public final void setValue(String name, Object newValue) {
+            setValue(name, newValue, null);
+        }
+
+        /**
+         * Sets a value for the specified field name on behalf of a form element. A {@link FormPropertyChangeEvent}
+         * naming the element is fired to registered listeners if the field's value changed, so the element is not
+         * refreshed with the value it just set.
+         *
+         * @param name     the field name to set the value for
+         * @param newValue the value to set
+         * @param origin   the form element setting the value, which must already display it
+         */
+        public final void setValue(String name, Object newValue, Object origin) {
             Object curValue = getBackingValue(name);
             if (!objectsEqual(curValue, newValue)) {
                 setBackingValue(name, newValue);
-                propertyChangeSupport.firePropertyChange(name, curValue, newValue);
+                firePropertyChange(name, curValue, newValue, origin);
             }
         }
 
+        /**
+         * Notifies registered listeners that the value of a field changed. Subclasses that set values without going
+         * through {@link #setValue}, such as the typed setters, must call this after a change.
+         *
+         * @param name      the field name whose value changed
+         * @param oldValue  the previous value
+         * @param newValue  the new value
+         * @param origin    the form element that made the change, or null
+         */
+        protected final void firePropertyChange(String name, Object oldValue, Object newValue, Object origin) {
+            propertyChangeSupport.firePropertyChange(new FormPropertyChangeEvent(this, name, oldValue, newValue, origin));
+        }
+
+        /**
+         * Returns the value of a numeric field as an int. Models backed by primitive fields should override this to
+         * read them without boxing.
+         *
+         * @param name          the field name
+         * @param defaultValue  the value to return if the field has no numeric value
+         * @return              the value of the field
+         */
+        public int getIntValue(String name, int defaultValue) {
+            Object value = getValue(name);
+            return value instanceof Number ? ((Number) value).intValue() : defaultValue;
+        }
+
+        /**
+         * Sets the value of an int field. Models backed by primitive fields should override this to write them
+         * without boxing.
+         *
+         * @param name      the field name
+         * @param value     the value to set
+         * @param origin    the form element setting the value, or null
+         */
+        public void setIntValue(String name, int value, Object origin) {
+            setValue(name, value, origin);
+        }
+
+        /**
+         * Returns the value of a numeric field as a long.
+         *
+         * @param name          the field name
+         * @param defaultValue  the value to return if the field has no numeric value
+         * @return              the value of the field
+         * @see #getIntValue(String, int)
+         */
+        public long getLongValue(String name, long defaultValue) {
+            Object value = getValue(name);
+            return value instanceof Number ? ((Number) value).longValue() : defaultValue;
+        }
+
+        /**
+         * Sets the value of a long field.
+         *
+         * @param name      the field name
+         * @param value     the value to set
+         * @param origin    the form element setting the value, or null
+         * @see #setIntValue(String, int, Object)
+         */
+        public void setLongValue(String name, long value, Object origin) {
+            setValue(name, value, origin);
+        }
+
+        /**
+         * Returns the value of a numeric field as a double.
+         *
+         * @param name          the field name
+         * @param defaultValue  the value to return if the field has no numeric value
+         * @return              the value of the field
+         * @see #getIntValue(String, int)
+         */
+        public double getDoubleValue(String name, double defaultValue) {
+            Object value = getValue(name);
+            return value instanceof Number ? ((Number) value).doubleValue() : defaultValue;
+        }
+
+        /**
+         * Sets the value of a double field.
+         *
+         * @param name      the field name
+         * @param value     the value to set
+         * @param origin    the form element setting the value, or null
+         * @see #setIntValue(String, int, Object)
+         */
+        public void setDoubleValue(String name, double value, Object origin) {
+            setValue(name, value, origin);
+        }
+
         private boolean objectsEqual(Object a, Object b) {
             return a == b || (a != null && a.equals(b));
         }
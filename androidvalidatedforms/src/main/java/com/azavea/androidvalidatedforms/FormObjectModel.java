@@ -1,5 +1,8 @@
 package com.azavea.androidvalidatedforms;
 
+import java.lang.reflect.Field;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * Created by kat on 9/15/16.
  */
@@ -7,6 +10,8 @@ public class FormObjectModel extends FormModelEnclosure.FormModel {
 
     private Object modelObject;
     private Class modelObjectClass;
+    // Class.getField returns a new copy on every call, so look each field up only once
+    private final ConcurrentHashMap<String, Field> fields = new ConcurrentHashMap<>();
 
     public FormObjectModel() {
         super();
@@ -22,7 +27,7 @@ public class FormObjectModel extends FormModelEnclosure.FormModel {
     @Override
     protected void setBackingValue(String name, Object newValue) {
         try {
-            modelObjectClass.getField(name).set(modelObject, newValue);
+            getModelField(name).set(modelObject, newValue);
         } catch (IllegalAccessException e) {
             e.printStackTrace();
         } catch (NoSuchFieldException e) {
@@ -33,7 +38,7 @@ public class FormObjectModel extends FormModelEnclosure.FormModel {
     @Override
     public Class getBackingModelClass(String fieldName) {
         try {
-            return modelObjectClass.getField(fieldName).getType();
+            return getModelField(fieldName).getType();
         } catch (NoSuchFieldException e) {
             e.printStackTrace();
         }
@@ -43,7 +48,7 @@ public class FormObjectModel extends FormModelEnclosure.FormModel {
     @Override
     protected Object getBackingValue(String name) {
         try {
-            return modelObjectClass.getField(name).get(modelObject);
+            return getModelField(name).get(modelObject);
         } catch (IllegalAccessException e) {
             e.printStackTrace();
         } catch (NoSuchFieldException e) {
@@ -52,8 +57,127 @@ public class FormObjectModel extends FormModelEnclosure.FormModel {
         return null;
     }
 
+    @Override
+    public int getIntValue(String name, int defaultValue) {
+        Field field = getPrimitiveField(name, int.class);
+        if (field == null) {
+            return super.getIntValue(name, defaultValue);
+        }
+        try {
+            return field.getInt(modelObject);
+        } catch (IllegalAccessException e) {
+            e.printStackTrace();
+        }
+        return defaultValue;
+    }
+
+    @Override
+    public void setIntValue(String name, int value, Object origin) {
+        Field field = getPrimitiveField(name, int.class);
+        if (field == null) {
+            super.setIntValue(name, value, origin);
+            return;
+        }
+        try {
+            int current = field.getInt(modelObject);
+            if (current != value) {
+                field.setInt(modelObject, value);
+                firePropertyChange(name, current, value, origin);
+            }
+        } catch (IllegalAccessException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public long getLongValue(String name, long defaultValue) {
+        Field field = getPrimitiveField(name, long.class);
+        if (field == null) {
+            return super.getLongValue(name, defaultValue);
+        }
+        try {
+            return field.getLong(modelObject);
+        } catch (IllegalAccessException e) {
+            e.printStackTrace();
+        }
+        return defaultValue;
+    }
+
+    @Override
+    public void setLongValue(String name, long value, Object origin) {
+        Field field = getPrimitiveField(name, long.class);
+        if (field == null) {
+            super.setLongValue(name, value, origin);
+            return;
+        }
+        try {
+            long current = field.getLong(modelObject);
+            if (current != value) {
+                field.setLong(modelObject, value);
+                firePropertyChange(name, current, value, origin);
+            }
+        } catch (IllegalAccessException e) {
+            e.printStackTrace();
+        }
+    }
+
+    @Override
+    public double getDoubleValue(String name, double defaultValue) {
+        Field field = getPrimitiveField(name, double.class);
+        if (field == null) {
+            return super.getDoubleValue(name, defaultValue);
+        }
+        try {
+            return field.getDouble(modelObject);
+        } catch (IllegalAccessException e) {
+            e.printStackTrace();
+        }
+        return defaultValue;
+    }
+
+    @Override
+    public void setDoubleValue(String name, double value, Object origin) {
+        Field field = getPrimitiveField(name, double.class);
+        if (field == null) {
+            super.setDoubleValue(name, value, origin);
+            return;
+        }
+        try {
+            double current = field.getDouble(modelObject);
+            // same comparison as Double.equals, as setValue uses
+            if (Double.compare(current, value) != 0) {
+                field.setDouble(modelObject, value);
+                firePropertyChange(name, current, value, origin);
+            }
+        } catch (IllegalAccessException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Returns the model field with the given name if it has the given primitive type, otherwise null.
+     */
+    private Field getPrimitiveField(String name, Class<?> type) {
+        try {
+            Field field = getModelField(name);
+            return field.getType() == type ? field : null;
+        } catch (NoSuchFieldException e) {
+            return null;
+        }
+    }
+
+    private Field getModelField(String name) throws NoSuchFieldException {
+        Field field = fields.get(name);
+        if (field == null) {
+            field = modelObjectClass.getField(name);
+            fields.put(name, field);
+        }
+        return field;
+    }
+
     @Override
     public Object getBackingModelObject() {
+        flushPendingValuesOnMainThread();
         return modelObject;
     }
 }
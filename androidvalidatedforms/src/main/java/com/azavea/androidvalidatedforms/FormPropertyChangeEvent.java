@@ -0,0 +1,34 @@
+package com.azavea.androidvalidatedforms;
+
+import java.beans.PropertyChangeEvent;
+
+/**
+ * A change of a form model value, tagged with the form element that made it, if any. The element that made a change
+ * already displays the new value, so it does not need to be refreshed for it.
+ */
+public class FormPropertyChangeEvent extends PropertyChangeEvent {
+    private final transient Object origin;
+
+    /**
+     * Constructs a new change event.
+     *
+     * @param source        the model whose value changed
+     * @param propertyName  the name of the field that changed
+     * @param oldValue      the previous value of the field
+     * @param newValue      the new value of the field
+     * @param origin        the form element that made the change, or null if it was made by other code
+     */
+    public FormPropertyChangeEvent(Object source, String propertyName, Object oldValue, Object newValue, Object origin) {
+        super(source, propertyName, oldValue, newValue);
+        this.origin = origin;
+    }
+
+    /**
+     * Returns the form element that made the change.
+     *
+     * @return the form element that made the change, or null if it was made by other code
+     */
+    public Object getOrigin() {
+        return origin;
+    }
+}
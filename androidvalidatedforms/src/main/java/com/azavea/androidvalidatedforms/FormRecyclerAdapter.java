@@ -0,0 +1,245 @@
+package com.azavea.androidvalidatedforms;
+
+import android.support.v7.util.DiffUtil;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Adapter that displays each section and element of a form as a row of a {@link RecyclerView}, so that only the rows
+ * on screen and those kept for reuse by the {@code RecyclerView} have views.
+ * <p/>
+ * Rows are typed by element class and layout; see {@link FormElementController#getViewLayout()}. When a row scrolls
+ * off screen and is recycled, its element saves what the user entered and lets go of its view. Elements that can
+ * rebind views, such as text and number fields, leave the view in the row, and the next element of the same type
+ * bound to the row takes it over and shows its own state in it; the views of other elements are released, and
+ * created again once the element scrolls back on screen. Values live on the form model and validation errors on the
+ * {@link FormElementController}, so neither is lost with the view.
+ */
+public class FormRecyclerAdapter extends RecyclerView.Adapter<FormRecyclerAdapter.ElementViewHolder> {
+
+    private final List<FormElementController> elements = new ArrayList<>();
+    private final Map<List<Object>, Integer> viewTypes = new HashMap<>();
+
+    /**
+     * Creates an adapter for the given rows.
+     *
+     * @param elements  the sections and elements to display, in display order
+     */
+    public FormRecyclerAdapter(List<FormElementController> elements) {
+        setElements(elements);
+    }
+
+    /**
+     * Replaces the rows of this adapter.
+     *
+     * @param elements  the sections and elements to display, in display order
+     */
+    public void setElements(List<FormElementController> elements) {
+        List<FormElementController> oldElements = new ArrayList<>(this.elements);
+        this.elements.clear();
+        this.elements.addAll(elements);
+        releaseRemovedViews(oldElements);
+        notifyDataSetChanged();
+    }
+
+    /**
+     * Replaces the rows of this adapter, notifying only the rows that were added, removed or moved.
+     *
+     * @param elements  the sections and elements to display, in display order
+     */
+    public void updateElements(final List<FormElementController> elements) {
+        final List<FormElementController> oldElements = new ArrayList<>(this.elements);
+        DiffUtil.DiffResult diff = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            @Override
+            public int getOldListSize() {
+                return oldElements.size();
+            }
+
+            @Override
+            public int getNewListSize() {
+                return elements.size();
+            }
+
+            @Override
+            public boolean areItemsTheSame(int oldPosition, int newPosition) {
+                return oldElements.get(oldPosition) == elements.get(newPosition);
+            }
+
+            @Override
+            public boolean areContentsTheSame(int oldPosition, int newPosition) {
+                // rows display the element's own view, which keeps itself up to date
+                return true;
+            }
+        });
+
+        this.elements.clear();
+        this.elements.addAll(elements);
+        releaseRemovedViews(oldElements);
+        diff.dispatchUpdatesTo(this);
+    }
+
+    /**
+     * Inserts rows for the given elements.
+     *
+     * @param position  the position of the first inserted row
+     * @param elements  the elements to insert, in display order
+     */
+    public void insertElements(int position, List<FormElementController> elements) {
+        this.elements.addAll(position, elements);
+        notifyItemRangeInserted(position, elements.size());
+    }
+
+    /**
+     * Removes a range of rows.
+     *
+     * @param position  the position of the first row to remove
+     * @param count     the number of rows to remove
+     */
+    public void removeElements(int position, int count) {
+        List<FormElementController> removed = elements.subList(position, position + count);
+        List<FormElementController> oldElements = new ArrayList<>(removed);
+        removed.clear();
+        releaseRemovedViews(oldElements);
+        notifyItemRangeRemoved(position, count);
+    }
+
+    /**
+     * Releases the views of the given elements that are no longer displayed by this adapter.
+     */
+    private void releaseRemovedViews(List<FormElementController> oldElements) {
+        if (oldElements.isEmpty()) {
+            return;
+        }
+        Set<FormElementController> displayed = Collections.newSetFromMap(
+                new IdentityHashMap<FormElementController, Boolean>());
+        displayed.addAll(elements);
+        for (FormElementController element : oldElements) {
+            if (!displayed.contains(element)) {
+                View view = element.isViewCreated() ? element.getView() : null;
+                if (view != null && view.getParent() != null) {
+                    ((ViewGroup) view.getParent()).removeView(view);
+                }
+                element.releaseView();
+            }
+        }
+    }
+
+    /**
+     * Returns the row position of an element.
+     *
+     * @param element   the element to find
+     * @return          the position of the element's row, or -1 if it is not displayed
+     */
+    public int indexOf(FormElementController element) {
+        return elements.indexOf(element);
+    }
+
+    /**
+     * Returns the element displayed at a row.
+     *
+     * @param position  the position of the row
+     * @return          the element displayed in that row
+     */
+    public FormElementController getElement(int position) {
+        return elements.get(position);
+    }
+
+    @Override
+    public int getItemCount() {
+        return elements.size();
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        FormElementController element = elements.get(position);
+        List<Object> key = Arrays.<Object>asList(element.getClass(), element.getViewLayout());
+        Integer viewType = viewTypes.get(key);
+        if (viewType == null) {
+            viewType = viewTypes.size();
+            viewTypes.put(key, viewType);
+        }
+        return viewType;
+    }
+
+    @Override
+    public ElementViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        FrameLayout row = new FrameLayout(parent.getContext());
+        row.setLayoutParams(new RecyclerView.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+                ViewGroup.LayoutParams.WRAP_CONTENT));
+        return new ElementViewHolder(row);
+    }
+
+    @Override
+    public void onBindViewHolder(ElementViewHolder holder, int position) {
+        holder.bind(elements.get(position));
+    }
+
+    @Override
+    public void onViewRecycled(ElementViewHolder holder) {
+        holder.unbind();
+    }
+
+    /**
+     * Row that hosts the view of the element bound to it. Once the element is unbound, the row keeps the view if the
+     * element can rebind views, for the next element bound to the row to take over.
+     */
+    public static class ElementViewHolder extends RecyclerView.ViewHolder {
+        private final FrameLayout row;
+        private FormElementController element;
+
+        ElementViewHolder(FrameLayout row) {
+            super(row);
+            this.row = row;
+        }
+
+        void bind(FormElementController element) {
+            if (element == this.element && element.isViewCreated() && element.getView().getParent() == row) {
+                return;
+            }
+            unbind();
+            this.element = element;
+
+            // take over the view left by the previous element of this row's type
+            View spareView = row.getChildCount() > 0 ? row.getChildAt(0) : null;
+            if (spareView != null && !element.isViewCreated() && element.canRebindView()) {
+                element.bindView(spareView);
+                return;
+            }
+
+            row.removeAllViews();
+            View view = element.getView();
+            if (view.getParent() != null) {
+                ((ViewGroup) view.getParent()).removeView(view);
+            }
+            row.addView(view, new FrameLayout.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+                    ViewGroup.LayoutParams.WRAP_CONTENT));
+        }
+
+        void unbind() {
+            FormElementController unbound = element;
+            element = null;
+            if (unbound == null || !unbound.isViewCreated() || unbound.getView().getParent() != row) {
+                // the view was released, or moved to another row
+                return;
+            }
+
+            if (unbound.canRebindView()) {
+                unbound.unbindView();
+            } else {
+                row.removeAllViews();
+                unbound.releaseView();
+            }
+        }
+    }
+}
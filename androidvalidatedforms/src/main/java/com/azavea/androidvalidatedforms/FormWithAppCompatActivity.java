@@ -8,10 +8,13 @@ import android.content.pm.PackageManager;
 import android.os.Build;
 import android.os.Bundle;
 import android.support.v4.app.FragmentManager;
+import android.support.v4.app.FragmentTransaction;
+import android.support.v7.widget.RecyclerView;
 import android.support.v7.app.AppCompatActivity;
 import android.util.Log;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
 import android.view.WindowManager.LayoutParams;
 
 import com.azavea.androidvalidatedforms.controllers.ImageController;
@@ -32,13 +35,16 @@ public abstract class FormWithAppCompatActivity extends AppCompatActivity implem
     private FormController formController;
     private View progressBar;
     private View scrollView;
+    private boolean recyclerLayout;
 
     private boolean formReady;
     private FormReadyListener formReadyListener;
+    private FirstPaintListener firstPaintListener;
     private HashMap<Integer, WeakReference<IntentResultListener>> intentListeners;
     private WeakReference<ExternalWriteRequest> externalWriteRequestListener;
 
-    // form layout may be overridden, if it contains the expected components with matching IDs
+    // form layout may be overridden, if it contains the expected components with matching IDs.
+    // Use R.layout.form_recycler_activity to only create the views of the elements that are on screen.
     protected int formLayout = R.layout.form_activity;
 
     @Override
@@ -84,6 +90,11 @@ public abstract class FormWithAppCompatActivity extends AppCompatActivity implem
         setContentView(formLayout);
         progressBar = findViewById(R.id.form_progress);
         scrollView = findViewById(R.id.form_scrollview);
+        if (scrollView == null) {
+            // form layout uses a RecyclerView instead of a ScrollView
+            scrollView = findViewById(R.id.form_recycler_view);
+            recyclerLayout = true;
+        }
 
         getWindow().setSoftInputMode(LayoutParams.SOFT_INPUT_ADJUST_RESIZE | LayoutParams.SOFT_INPUT_STATE_HIDDEN);
 
@@ -96,20 +107,64 @@ public abstract class FormWithAppCompatActivity extends AppCompatActivity implem
      * Reconstructs the form element views. This must be called after form elements are dynamically added or removed.
      */
     protected void recreateViews() {
-        ViewGroup containerView = (ViewGroup) findViewById(R.id.form_elements_container);
-        getFormController().recreateViews(containerView);
+        View recyclerView = findViewById(R.id.form_recycler_view);
+        if (recyclerView != null) {
+            getFormController().recreateViews((RecyclerView) recyclerView);
+        } else {
+            ViewGroup containerView = (ViewGroup) findViewById(R.id.form_elements_container);
+            getFormController().recreateViews(containerView);
+        }
+    }
+
+    /**
+     * Updates the form element views after form elements are dynamically added, removed or reordered, keeping the
+     * views of the elements that are still displayed.
+     */
+    protected void updateViews() {
+        View recyclerView = findViewById(R.id.form_recycler_view);
+        if (recyclerView != null) {
+            getFormController().updateViews((RecyclerView) recyclerView);
+        } else {
+            ViewGroup containerView = (ViewGroup) findViewById(R.id.form_elements_container);
+            getFormController().updateViews(containerView);
+        }
     }
     
     public void displayForm() {
         FragmentManager fm = getSupportFragmentManager();
         FormModel retainedModel = (FormModel) fm.findFragmentByTag(MODEL_BUNDLE_KEY);
-
-        if (retainedModel == null) {
-            retainedModel = getFormController().getModel();
-            fm.beginTransaction().add(retainedModel, MODEL_BUNDLE_KEY).commit();
+        FormModel model = getFormController().getModel();
+
+        if (retainedModel != model) {
+            FragmentTransaction transaction = fm.beginTransaction();
+            if (retainedModel != null) {
+                // keep the validation results of fields whose values have not changed since the form was recreated
+                model.copyValidationResults(retainedModel);
+                transaction.remove(retainedModel);
+            }
+            transaction.add(model, MODEL_BUNDLE_KEY).commit();
         }
 
         recreateViews();
+        listenForFirstPaint();
+    }
+
+    /**
+     * Notifies the first paint listener just before the form is drawn for the first time.
+     */
+    private void listenForFirstPaint() {
+        scrollView.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                scrollView.getViewTreeObserver().removeOnPreDrawListener(this);
+                if (firstPaintListener != null) {
+                    firstPaintListener.formFirstPaintCallback();
+                } else if (FormWithAppCompatActivity.this instanceof FirstPaintListener) {
+                    ((FirstPaintListener) FormWithAppCompatActivity.this).formFirstPaintCallback();
+                }
+                return true;
+            }
+        });
     }
 
     public boolean isFormReady() {
@@ -128,6 +183,16 @@ public abstract class FormWithAppCompatActivity extends AppCompatActivity implem
         formReadyListener = listener;
     }
 
+    /**
+     * Sets the listener to notify when the form is first drawn, instead of this activity if it implements
+     * {@link FirstPaintListener}.
+     *
+     * @param listener  the listener to notify, or null
+     */
+    public void setFirstPaintListener(FirstPaintListener listener) {
+        firstPaintListener = listener;
+    }
+
     /**
      * Responsible for creating a formController with the model object.
      * formController = new FormController(this, someObj);
@@ -145,6 +210,8 @@ public abstract class FormWithAppCompatActivity extends AppCompatActivity implem
     public FormController getFormController() {
         if (formController == null) {
             formController = createFormController();
+            // the views of a RecyclerView's rows are only created once they scroll into view
+            formController.setRecyclerRendering(recyclerLayout);
         }
         return formController;
     }
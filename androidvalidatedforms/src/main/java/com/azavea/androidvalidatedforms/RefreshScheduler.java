@@ -0,0 +1,104 @@
+package com.azavea.androidvalidatedforms;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Coalesces refreshes of form elements, so that a burst of model changes refreshes each element at most once per
+ * frame. Elements are marked dirty from any thread, and refreshed together on the main thread at the next frame.
+ */
+public class RefreshScheduler {
+
+    // fallback frame interval before Choreographer is available (API 16)
+    private static final long FRAME_DELAY_MS = 16;
+
+    private final Set<FormElementController> dirtyElements = new LinkedHashSet<>();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private boolean frameScheduled = false;
+    private Object frameCallback;
+
+    private final Runnable scheduleRunnable = new Runnable() {
+        @Override
+        public void run() {
+            scheduleFrame();
+        }
+    };
+
+    private final Runnable flushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    /**
+     * Marks an element as needing a refresh at the next frame.
+     *
+     * @param element   the element to refresh
+     */
+    public void markDirty(FormElementController element) {
+        synchronized (dirtyElements) {
+            dirtyElements.add(element);
+            if (frameScheduled) {
+                return;
+            }
+            frameScheduled = true;
+        }
+
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            scheduleFrame();
+        } else {
+            mainHandler.post(scheduleRunnable);
+        }
+    }
+
+    /**
+     * Refreshes all the elements marked dirty right away. Must be called on the main thread. Useful in tests, or
+     * before reading back views that must reflect the latest model values.
+     */
+    public void flush() {
+        List<FormElementController> elements;
+        synchronized (dirtyElements) {
+            elements = new ArrayList<>(dirtyElements);
+            dirtyElements.clear();
+            frameScheduled = false;
+        }
+
+        for (FormElementController element : elements) {
+            // elements without a view will read the current model value when their view is created
+            if (element.isViewCreated()) {
+                element.refresh();
+            }
+        }
+    }
+
+    private void scheduleFrame() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            postFrameCallback();
+        } else {
+            mainHandler.postDelayed(flushRunnable, FRAME_DELAY_MS);
+        }
+    }
+
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private void postFrameCallback() {
+        // created lazily, so the Choreographer classes are never loaded on older APIs
+        if (frameCallback == null) {
+            frameCallback = new Choreographer.FrameCallback() {
+                @Override
+                public void doFrame(long frameTimeNanos) {
+                    flush();
+                }
+            };
+        }
+        Choreographer.getInstance().postFrameCallback((Choreographer.FrameCallback) frameCallback);
+    }
+}
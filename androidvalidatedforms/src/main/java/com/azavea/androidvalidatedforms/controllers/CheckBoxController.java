@@ -1,14 +1,30 @@
 package com.azavea.androidvalidatedforms.controllers;
 
+import android.app.AlertDialog;
 import android.content.Context;
+import android.content.DialogInterface;
+import android.content.DialogInterface.OnDismissListener;
+import android.text.InputType;
+import android.text.TextUtils;
 import android.view.LayoutInflater;
 import android.view.View;
+import android.view.View.OnClickListener;
+import android.view.View.OnFocusChangeListener;
 import android.view.ViewGroup;
+import android.widget.AdapterView;
+import android.widget.AdapterView.OnItemClickListener;
+import android.widget.BaseAdapter;
 import android.widget.CheckBox;
+import android.widget.CheckedTextView;
 import android.widget.CompoundButton;
+import android.widget.EditText;
+import android.widget.ListView;
 
 import com.azavea.androidvalidatedforms.R;
+import com.azavea.androidvalidatedforms.utils.ValueIndex;
 
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -19,11 +35,23 @@ import java.util.Set;
  * For the field value, the associated FormModel must return either a Set<String> or a Set<0-based index>, representing the
  * currently selected items. Which representation to use is specified by the constructor. In either representation, no
  * selection can be represented by returning {@code null} for the value of the field.
+ * <p/>
+ * For lists of hundreds of items, use {@link #setVirtualized(boolean)} to show the selected items as a summary, and the
+ * checkboxes in a dialog that only creates views for the rows on screen.
  */
 public class CheckBoxController extends LabeledFieldController {
-    private final static int CHECKBOX_ID = 101010;
     private final List<String> items;
     private final List<?> values;
+    private ValueIndex valueIndex;
+    private boolean virtualized = false;
+
+    // items currently shown as selected
+    private BitSet selection = new BitSet();
+    private CheckBox[] checkBoxes;
+    private EditText summaryView;
+    private AlertDialog selectionDialog;
+    private SelectionAdapter selectionAdapter;
+    private boolean refreshing = false;
 
     /**
      * Constructs a new instance of a checkboxes field.
@@ -59,61 +87,239 @@ public class CheckBoxController extends LabeledFieldController {
         this.values = values;
     }
 
+    /**
+     * Sets whether the items are shown in a dialog with recycled rows, instead of as one checkbox each in the form.
+     * The field then displays a summary of the selected items. Must be called before the view is created.
+     * Default is false.
+     *
+     * @param virtualized   if true, show the items in a dialog
+     */
+    public void setVirtualized(boolean virtualized) {
+        this.virtualized = virtualized;
+    }
+
+    /**
+     * Indicates whether the items are shown in a dialog with recycled rows.
+     *
+     * @return true if the items are shown in a dialog, otherwise false
+     */
+    public boolean isVirtualized() {
+        return virtualized;
+    }
+
+    @Override
+    public boolean canCreateViewOffMainThread() {
+        // the view holds plain check boxes, or an EditText; the dialog is only created when it is clicked
+        return true;
+    }
+
     @Override
     protected View createFieldView() {
+        selection = retrieveSelection();
+        if (virtualized) {
+            return createSummaryView();
+        }
+
         LayoutInflater inflater = (LayoutInflater) getContext().getSystemService(Context.LAYOUT_INFLATER_SERVICE);
         ViewGroup checkboxContainer = (ViewGroup) inflater.inflate(R.layout.form_checkbox_container, null);
 
-        Set<Object> modelValues = retrieveModelValues();
-        CheckBox checkBox;
+        CompoundButton.OnCheckedChangeListener checkedChangeListener = new CheckBox.OnCheckedChangeListener() {
+            @Override
+            public void onCheckedChanged(CompoundButton buttonView, boolean isChecked) {
+                if (!refreshing) {
+                    setItemSelected((Integer) buttonView.getTag(), isChecked);
+                }
+            }
+        };
+
         int nbItem = items.size();
+        checkBoxes = new CheckBox[nbItem];
         for (int index = 0; index < nbItem; index++) {
-            checkBox = new CheckBox(getContext());
+            CheckBox checkBox = new CheckBox(getContext());
             checkBox.setText(items.get(index));
-            checkBox.setId(CHECKBOX_ID + index);
-            if (modelValues.contains(values.get(index))) {
-                checkBox.setChecked(true);
+            checkBox.setTag(index);
+            checkBox.setChecked(selection.get(index));
+            checkBox.setOnCheckedChangeListener(checkedChangeListener);
+
+            checkboxContainer.addView(checkBox);
+            checkBoxes[index] = checkBox;
+        }
+        return checkboxContainer;
+    }
+
+    private View createSummaryView() {
+        final EditText editText = new EditText(getContext());
+        editText.setSingleLine(true);
+        editText.setEllipsize(TextUtils.TruncateAt.END);
+        editText.setInputType(InputType.TYPE_CLASS_TEXT);
+        editText.setKeyListener(null);
+        editText.setHint(R.string.select_prompt);
+        editText.setOnClickListener(new OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                showSelectionDialog(v.getContext());
             }
+        });
 
-            checkBox.setOnCheckedChangeListener(new CheckBox.OnCheckedChangeListener() {
-                @Override
-                public void onCheckedChanged(CompoundButton buttonView, boolean isChecked) {
-                    int position = buttonView.getId() - CHECKBOX_ID;
-                    Object value = areValuesDefined() ? values.get(position): position;
-                    Set<Object> modelValues = retrieveModelValues();
-                    if (isChecked) {
-                        modelValues.add(value);
-                    } else {
-                        modelValues.remove(value);
-                    }
-                    getModel().setValue(getName(), modelValues);
+        editText.setOnFocusChangeListener(new OnFocusChangeListener() {
+            @Override
+            public void onFocusChange(View v, boolean hasFocus) {
+                if (hasFocus) {
+                    showSelectionDialog(v.getContext());
                 }
-            });
+            }
+        });
 
-            checkboxContainer.addView(checkBox);
+        summaryView = editText;
+        updateSummary();
+        return editText;
+    }
+
+    private void showSelectionDialog(Context context) {
+        // don't show dialog again if it's already being shown
+        if (selectionDialog != null) {
+            return;
         }
-        return checkboxContainer;
+
+        selectionAdapter = new SelectionAdapter(context);
+        ListView listView = new ListView(context);
+        listView.setAdapter(selectionAdapter);
+        listView.setOnItemClickListener(new OnItemClickListener() {
+            @Override
+            public void onItemClick(AdapterView<?> parent, View view, int position, long id) {
+                boolean isChecked = !selection.get(position);
+                ((CheckedTextView) view).setChecked(isChecked);
+                setItemSelected(position, isChecked);
+            }
+        });
+
+        AlertDialog.Builder builder = new AlertDialog.Builder(context);
+        builder.setTitle(getLabel());
+        builder.setView(listView);
+        builder.setPositiveButton(android.R.string.ok, null);
+        selectionDialog = builder.create();
+        selectionDialog.setOnDismissListener(new OnDismissListener() {
+            @Override
+            public void onDismiss(DialogInterface dialog) {
+                selectionDialog = null;
+                selectionAdapter = null;
+            }
+        });
+
+        selectionDialog.show();
+    }
+
+    /**
+     * Selects or deselects an item, and sets the new selection on the model.
+     */
+    private void setItemSelected(int index, boolean isChecked) {
+        selection.set(index, isChecked);
+        if (virtualized) {
+            updateSummary();
+        }
+
+        // copy the set, so the model sees a change
+        Set<Object> modelValues = new HashSet<>(retrieveModelValues());
+        if (isChecked) {
+            modelValues.add(getValue(index));
+        } else {
+            modelValues.remove(getValue(index));
+        }
+        getModel().setValue(getName(), modelValues, this);
+    }
+
+    private void updateSummary() {
+        if (summaryView == null) {
+            return;
+        }
+
+        List<String> selectedItems = new ArrayList<>(selection.cardinality());
+        for (int index = selection.nextSetBit(0); index >= 0; index = selection.nextSetBit(index + 1)) {
+            selectedItems.add(items.get(index));
+        }
+        summaryView.setText(TextUtils.join(", ", selectedItems));
     }
 
     @Override
     public void refresh() {
-        Set<Object> modelValues = retrieveModelValues();
-        ViewGroup layout = getContainer();
+        // make sure the field view exists
+        getView();
 
-        CheckBox checkbox;
-        int nbItem = items.size();
-        for (int index = 0; index < nbItem; index++) {
-            checkbox = (CheckBox) layout.findViewById(CHECKBOX_ID + index);
-            checkbox.setChecked(
-                    modelValues.contains(
-                            areValuesDefined() ? checkbox.getText() : index
-                    )
-            );
+        BitSet modelSelection = retrieveSelection();
+        if (virtualized) {
+            selection = modelSelection;
+            updateSummary();
+            if (selectionAdapter != null) {
+                selectionAdapter.notifyDataSetChanged();
+            }
+        } else {
+            // only touch the checkboxes whose state changed
+            BitSet changed = (BitSet) selection.clone();
+            changed.xor(modelSelection);
+            selection = modelSelection;
+
+            refreshing = true;
+            try {
+                for (int index = changed.nextSetBit(0); index >= 0; index = changed.nextSetBit(index + 1)) {
+                    checkBoxes[index].setChecked(modelSelection.get(index));
+                }
+            } finally {
+                refreshing = false;
+            }
         }
 
         setNeedsValidation();
     }
 
+    @Override
+    protected void onViewReleased() {
+        super.onViewReleased();
+        checkBoxes = null;
+        summaryView = null;
+    }
+
+    /**
+     * Returns the model value representing the item at the given index.
+     */
+    private Object getValue(int index) {
+        return areValuesDefined() ? values.get(index) : index;
+    }
+
+    /**
+     * Returns the index of the item represented by a model value.
+     *
+     * @return the index of the item, or -1 if no item has that value
+     */
+    private int indexOfValue(Object value) {
+        if (!areValuesDefined()) {
+            if (value instanceof Integer) {
+                int index = (Integer) value;
+                return index >= 0 && index < items.size() ? index : -1;
+            }
+            return -1;
+        }
+
+        if (valueIndex == null) {
+            // shared with the other fields using the same values
+            valueIndex = ValueIndex.of(values);
+        }
+        return valueIndex.indexOf(value);
+    }
+
+    /**
+     * Returns the items selected in the model, in time proportional to the number of selected items.
+     */
+    private BitSet retrieveSelection() {
+        BitSet modelSelection = new BitSet(items.size());
+        for (Object value : retrieveModelValues()) {
+            int index = indexOfValue(value);
+            if (index >= 0) {
+                modelSelection.set(index);
+            }
+        }
+        return modelSelection;
+    }
+
     /**
      * Returns the status of the values entry.
      *
@@ -138,11 +344,39 @@ public class CheckBoxController extends LabeledFieldController {
     }
 
     /**
-     * Returns the View containing the checkboxes.
-     *
-     * @return The View containing the checkboxes.
+     * Shows the items in the selection dialog, creating views only for the rows on screen.
      */
-    private ViewGroup getContainer() {
-        return (ViewGroup) getView().findViewById(R.id.form_checkbox_container);
+    private class SelectionAdapter extends BaseAdapter {
+        private final LayoutInflater inflater;
+
+        SelectionAdapter(Context context) {
+            inflater = LayoutInflater.from(context);
+        }
+
+        @Override
+        public int getCount() {
+            return items.size();
+        }
+
+        @Override
+        public String getItem(int position) {
+            return items.get(position);
+        }
+
+        @Override
+        public long getItemId(int position) {
+            return position;
+        }
+
+        @Override
+        public View getView(int position, View convertView, ViewGroup parent) {
+            CheckedTextView row = (CheckedTextView) convertView;
+            if (row == null) {
+                row = (CheckedTextView) inflater.inflate(android.R.layout.simple_list_item_multiple_choice, parent, false);
+            }
+            row.setText(items.get(position));
+            row.setChecked(selection.get(position));
+            return row;
+        }
     }
 }
@@ -1,10 +1,11 @@
 package com.azavea.androidvalidatedforms.controllers;
 
-import java.text.DateFormatSymbols;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
+import java.util.TimeZone;
 
 import android.app.DatePickerDialog;
 import android.app.DatePickerDialog.OnDateSetListener;
@@ -21,8 +22,10 @@ import android.widget.EditText;
 import android.widget.TimePicker;
 
 import com.azavea.androidvalidatedforms.FormController;
+import com.azavea.androidvalidatedforms.utils.DateFormatCache;
+import com.azavea.androidvalidatedforms.validations.RequiredField;
+import com.azavea.androidvalidatedforms.validations.ValidationError;
 import com.github.msarhan.ummalqura.calendar.UmmalquraCalendar;
-import com.github.msarhan.ummalqura.calendar.UmmalquraDateFormatSymbols;
 
 import net.alhazmy13.hijridatepicker.HijriCalendarDialog;
 import net.alhazmy13.hijridatepicker.HijriCalendarView;
@@ -30,20 +33,38 @@ import net.alhazmy13.hijridatepicker.HijriCalendarView;
 /**
  * Represents a field that allows selecting a specific date via a date picker.
  * <p/>
- * For the field value, the associated FormModel must return a {@link Date} instance. No selected date can be
- * represented by returning {@code null} for the value of the field.
+ * For the field value, the associated FormModel must return a {@link Date} instance, or a {@code long} or {@code Long}
+ * holding the time in milliseconds since the epoch. No selected date can be represented by returning {@code null} for
+ * the value of the field, or 0 for a primitive {@code long} field.
+ * <p/>
+ * Fields constructed with a pattern rather than a {@link SimpleDateFormat} share their formatter with the other fields
+ * using the same pattern, locale and time zone.
  */
 public class DatePickerController extends LabeledFieldController {
     private final int editTextId = FormController.generateViewId();
 
     private DatePickerDialog datePickerDialog = null;
     private TimePickerDialog timePickerDialog = null;
-    private final SimpleDateFormat displayFormat;
+    private static final String DEFAULT_PATTERN = "MMM d, yyyy";
+
+    // either a format given by the caller, or the pattern of a shared format
+    private final SimpleDateFormat customFormat;
+    private final String pattern;
+    private final Locale locale;
+    private final TimeZone timeZone;
+    private DateFormatCache.SharedDateFormat sharedFormat;
+    private final Date displayDate = new Date();
     private Calendar calendar;
+    private boolean typeResolved = false;
+    private boolean epochMillis;
+    private boolean primitiveType;
     private boolean showTimePicker = false;
     private boolean useHijri = false;
     private long maxDateTime = 0;
 
+    // returned by getModelMillis when the field has no date
+    private static final long NO_DATE = Long.MIN_VALUE;
+
     /**
      * Constructs a new instance of a date picker field.
      *
@@ -54,20 +75,37 @@ public class DatePickerController extends LabeledFieldController {
      * @param displayFormat     the format of the date to show in the text box when a date is set
      */
     public DatePickerController(Context ctx, String name, String labelText, boolean isRequired, SimpleDateFormat displayFormat) {
+        this(ctx, name, labelText, isRequired, displayFormat, null, Locale.getDefault(), displayFormat.getTimeZone());
+    }
+
+    /**
+     * Constructs a new instance of a date picker field, with the selected date displayed using a shared format.
+     *
+     * @param ctx               the Android context
+     * @param name              the name of the field
+     * @param labelText         the label to display beside the field. Set to {@code null} to not show a label.
+     * @param isRequired        indicates if the field is required or not
+     * @param pattern           the pattern of the date to show in the text box, as defined by {@link SimpleDateFormat}
+     * @param locale            the locale to format the date in
+     * @param timeZone          the time zone to display the date in
+     */
+    public DatePickerController(Context ctx, String name, String labelText, boolean isRequired, String pattern,
+                                Locale locale, TimeZone timeZone) {
+        this(ctx, name, labelText, isRequired, null, pattern, locale, timeZone);
+    }
+
+    private DatePickerController(Context ctx, String name, String labelText, boolean isRequired,
+                                 SimpleDateFormat customFormat, String pattern, Locale locale, TimeZone timeZone) {
         super(ctx, name, labelText, isRequired);
-        this.displayFormat = displayFormat;
+        this.customFormat = customFormat;
+        this.pattern = pattern;
+        this.locale = locale;
+        this.timeZone = timeZone;
 
         // default to use Hijri Ummalqura calendar if system language is Arabic or location is Saudi Arabia
-        Locale locale = Locale.getDefault();
-        this.useHijri = locale.getLanguage().startsWith("ar") || locale.getCountry().startsWith("SA");
-
-        if (useHijri) {
-            this.calendar = getUmmalquraCalendar();
-        } else {
-            this.calendar = Calendar.getInstance(locale);
+        if (locale.getLanguage().startsWith("ar") || locale.getCountry().startsWith("SA")) {
+            setUseHijri();
         }
-
-        this.calendar.setTimeZone(displayFormat.getTimeZone());
     }
 
     /**
@@ -77,7 +115,7 @@ public class DatePickerController extends LabeledFieldController {
      * @param labelText         the label to display beside the field
      */
     public DatePickerController(Context context, String name, String labelText) {
-        this(context, name, labelText, false, new SimpleDateFormat("MMM d, yyyy", Locale.getDefault()));
+        this(context, name, labelText, false, DEFAULT_PATTERN, Locale.getDefault(), TimeZone.getDefault());
     }
 
     /**
@@ -90,7 +128,7 @@ public class DatePickerController extends LabeledFieldController {
      * @param showTimePicker    if true, show time picker after date component dismissed
      */
     public DatePickerController(Context context, String name, String labelText, boolean isRequired, boolean showTimePicker) {
-        this(context, name, labelText, isRequired, new SimpleDateFormat("MMM d, yyyy", Locale.getDefault()));
+        this(context, name, labelText, isRequired, DEFAULT_PATTERN, Locale.getDefault(), TimeZone.getDefault());
         this.showTimePicker = showTimePicker;
     }
 
@@ -120,7 +158,11 @@ public class DatePickerController extends LabeledFieldController {
         }
 
         useHijri = true;
-        getUmmalquraCalendar();
+        calendar = null;
+        sharedFormat = null;
+        if (customFormat != null) {
+            DateFormatCache.applyHijri(customFormat, locale);
+        }
     }
 
     /**
@@ -129,16 +171,18 @@ public class DatePickerController extends LabeledFieldController {
      * @return Hijri calendar
      */
     public Calendar getUmmalquraCalendar() {
-        Locale locale = Locale.getDefault();
-        calendar = new UmmalquraCalendar(locale);
-        calendar.setTime(new Date());
-        displayFormat.setCalendar(calendar);
-        // explicitly set the date format symbols; otherwise months display as incorrect Gregorian
-        UmmalquraDateFormatSymbols ummalquara = new UmmalquraDateFormatSymbols();
-        DateFormatSymbols symbols = new DateFormatSymbols(locale);
-        symbols.setMonths(ummalquara.getMonths());
-        symbols.setShortMonths(ummalquara.getShortMonths());
-        displayFormat.setDateFormatSymbols(symbols);
+        setUseHijri();
+        return getCalendar();
+    }
+
+    /**
+     * Returns the calendar used by the pickers, creating it on first use.
+     */
+    private Calendar getCalendar() {
+        if (calendar == null) {
+            calendar = useHijri ? new UmmalquraCalendar(locale) : Calendar.getInstance(locale);
+            calendar.setTimeZone(timeZone);
+        }
         return calendar;
     }
 
@@ -159,6 +203,12 @@ public class DatePickerController extends LabeledFieldController {
         maxDateTime = System.currentTimeMillis();
     }
 
+    @Override
+    public boolean canCreateViewOffMainThread() {
+        // the view is a plain EditText; the pickers are only created when it is clicked
+        return true;
+    }
+
     @Override
     protected View createFieldView() {
         final EditText editText = new EditText(getContext());
@@ -190,12 +240,9 @@ public class DatePickerController extends LabeledFieldController {
     private void showDatePickerDialog(final Context context, final EditText editText) {
         // don't show dialog again if it's already being shown
         if (datePickerDialog == null) {
-            Date date = (Date)getModel().getValue(getName());
-            if (date == null) {
-                date = new Date();
-            }
-
-            calendar.setTime(date);
+            final Calendar calendar = getCalendar();
+            long millis = getModelMillis();
+            calendar.setTimeInMillis(millis != NO_DATE ? millis : System.currentTimeMillis());
 
             if (useHijri) {
                 // custom Hijri date-picker
@@ -205,8 +252,8 @@ public class DatePickerController extends LabeledFieldController {
                             @Override
                             public void onDateSet(int year, int monthOfYear, int dayOfMonth) {
                                 calendar.set(year, monthOfYear, dayOfMonth);
-                                getModel().setValue(getName(), calendar.getTime());
-                                editText.setText(displayFormat.format(calendar.getTime()));
+                                setModelMillis(calendar.getTimeInMillis());
+                                editText.setText(formatDate(calendar.getTimeInMillis()));
                             }
                         });
 
@@ -236,8 +283,8 @@ public class DatePickerController extends LabeledFieldController {
                     @Override
                     public void onDateSet(DatePicker view, int year, int monthOfYear, int dayOfMonth) {
                         calendar.set(year, monthOfYear, dayOfMonth);
-                        getModel().setValue(getName(), calendar.getTime());
-                        editText.setText(displayFormat.format(calendar.getTime()));
+                        setModelMillis(calendar.getTimeInMillis());
+                        editText.setText(formatDate(calendar.getTimeInMillis()));
 
                     }
                 }, calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH), calendar.get(Calendar.DAY_OF_MONTH));
@@ -263,20 +310,17 @@ public class DatePickerController extends LabeledFieldController {
     private void showTimePickerDialog(final Context context, final EditText editText) {
         // don't show dialog again if it's already being shown
         if (timePickerDialog == null) {
-            Date date = (Date)getModel().getValue(getName());
-            if (date == null) {
-                date = new Date();
-            }
-
-            calendar.setTime(date);
+            final Calendar calendar = getCalendar();
+            long millis = getModelMillis();
+            calendar.setTimeInMillis(millis != NO_DATE ? millis : System.currentTimeMillis());
 
             timePickerDialog = new TimePickerDialog(context, new TimePickerDialog.OnTimeSetListener() {
                 @Override
                 public void onTimeSet(TimePicker view, int hourOfDay, int minute) {
                     calendar.set(Calendar.HOUR_OF_DAY, hourOfDay);
                     calendar.set(Calendar.MINUTE, minute);
-                    getModel().setValue(getName(), calendar.getTime());
-                    editText.setText(displayFormat.format(calendar.getTime()));
+                    setModelMillis(calendar.getTimeInMillis());
+                    editText.setText(formatDate(calendar.getTimeInMillis()));
                 }
             }, calendar.get(Calendar.HOUR_OF_DAY), calendar.get(Calendar.MINUTE), android.text.format.DateFormat.is24HourFormat(context));
 
@@ -295,9 +339,64 @@ public class DatePickerController extends LabeledFieldController {
         return (EditText)getView().findViewById(editTextId);
     }
 
+    /**
+     * Resolves whether the model holds the date as a {@link Date}, or as milliseconds since the epoch.
+     */
+    private void resolveType() {
+        if (!typeResolved) {
+            Class modelClass = getModel().getBackingModelClass(getName());
+            primitiveType = modelClass == long.class;
+            epochMillis = primitiveType || modelClass == Long.class;
+            typeResolved = true;
+        }
+    }
+
+    /**
+     * Returns the date of the model field, in milliseconds since the epoch, without allocating.
+     *
+     * @return the time of the date, or {@link #NO_DATE} if the field has no date
+     */
+    private long getModelMillis() {
+        resolveType();
+        if (epochMillis) {
+            long millis = getModel().getLongValue(getName(), NO_DATE);
+            return primitiveType && millis == 0 ? NO_DATE : millis;
+        }
+        Date date = (Date)getModel().getValue(getName());
+        return date != null ? date.getTime() : NO_DATE;
+    }
+
+    private void setModelMillis(long millis) {
+        resolveType();
+        if (epochMillis) {
+            getModel().setLongValue(getName(), millis, this);
+        } else {
+            getModel().setValue(getName(), new Date(millis), this);
+        }
+    }
+
+    private String formatDate(long millis) {
+        if (customFormat != null) {
+            displayDate.setTime(millis);
+            return customFormat.format(displayDate);
+        }
+        if (sharedFormat == null) {
+            sharedFormat = DateFormatCache.get(pattern, locale, timeZone, useHijri);
+        }
+        return sharedFormat.format(millis);
+    }
+
+    @Override
+    protected void validateValue(Object value, List<ValidationError> errors) {
+        // a primitive field holds 0 when no date is set, which the null check of required fields cannot see
+        if (isRequired() && getModelMillis() == NO_DATE) {
+            errors.add(new RequiredField(getName(), getLabel()));
+        }
+    }
+
     private void refresh(EditText editText) {
-        Date value = (Date)getModel().getValue(getName());
-        editText.setText(value != null ? displayFormat.format(value) : "");
+        long millis = getModelMillis();
+        editText.setText(millis != NO_DATE ? formatDate(millis) : "");
         setNeedsValidation();
     }
 
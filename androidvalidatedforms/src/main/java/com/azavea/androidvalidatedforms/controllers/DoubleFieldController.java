@@ -0,0 +1,95 @@
+package com.azavea.androidvalidatedforms.controllers;
+
+import android.content.Context;
+import android.text.InputType;
+
+import com.azavea.androidvalidatedforms.validations.OutOfRangeError;
+import com.azavea.androidvalidatedforms.validations.ValidationError;
+
+import java.util.List;
+
+/**
+ * Represents a field that allows entering a decimal number.
+ * <p/>
+ * For the field value, the associated FormModel must hold a {@code double} or a {@code Double}. No value can be
+ * represented by {@code null} on a {@code Double} field.
+ */
+public class DoubleFieldController extends NumericFieldController {
+    private double min = Double.NEGATIVE_INFINITY;
+    private double max = Double.POSITIVE_INFINITY;
+
+    /**
+     * Constructs a new instance of a decimal number field.
+     *
+     * @param ctx           the Android context
+     * @param name          the name of the field
+     * @param labelText     the label to display beside the field. Set to {@code null} to not show a label.
+     * @param placeholder   a placeholder text to show when the input field is empty. If null, no placeholder is displayed
+     * @param isRequired    indicates if the field is required or not
+     */
+    public DoubleFieldController(Context ctx, String name, String labelText, String placeholder, boolean isRequired) {
+        super(ctx, name, labelText, placeholder, isRequired,
+                InputType.TYPE_CLASS_NUMBER | InputType.TYPE_NUMBER_FLAG_SIGNED | InputType.TYPE_NUMBER_FLAG_DECIMAL);
+    }
+
+    /**
+     * Sets the range of values this field accepts. Values outside it, and NaN, are reported as validation errors.
+     *
+     * @param min   the smallest allowed value
+     * @param max   the largest allowed value
+     */
+    public void setRange(double min, double max) {
+        this.min = min;
+        this.max = max;
+        setNeedsValidation();
+    }
+
+    /**
+     * Returns the smallest value this field accepts.
+     *
+     * @return the smallest allowed value
+     */
+    public double getMin() {
+        return min;
+    }
+
+    /**
+     * Returns the largest value this field accepts.
+     *
+     * @return the largest allowed value
+     */
+    public double getMax() {
+        return max;
+    }
+
+    @Override
+    protected boolean parse(CharSequence text) {
+        return parser.parseDouble(text);
+    }
+
+    @Override
+    protected boolean isParsedValueInModel() {
+        return Double.compare(getModel().getDoubleValue(getName(), 0), parser.getDouble()) == 0;
+    }
+
+    @Override
+    protected void setParsedValueOnModel() {
+        getModel().setDoubleValue(getName(), parser.getDouble(), this);
+    }
+
+    @Override
+    protected String formatModelValue() {
+        return Double.toString(getModel().getDoubleValue(getName(), 0));
+    }
+
+    @Override
+    protected void validateValue(Object value, List<ValidationError> errors) {
+        if (value instanceof Number) {
+            double number = ((Number) value).doubleValue();
+            // written so that NaN is out of range
+            if (!(number >= min && number <= max)) {
+                errors.add(new OutOfRangeError(getName(), getLabel(), min, max));
+            }
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.azavea.androidvalidatedforms.controllers;
 
 import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.Editable;
 import android.text.InputType;
 import android.text.TextWatcher;
@@ -9,9 +11,29 @@ import android.view.View;
 import android.widget.EditText;
 
 import com.azavea.androidvalidatedforms.FormController;
+import com.azavea.androidvalidatedforms.FormModelEnclosure.FormModel;
+import com.azavea.androidvalidatedforms.converters.NumberConverter;
+import com.azavea.androidvalidatedforms.converters.ValueConverter;
+import com.azavea.androidvalidatedforms.converters.ValueConverters;
+import com.azavea.androidvalidatedforms.utils.NumberParser;
+import com.azavea.androidvalidatedforms.validations.InvalidInputError;
+import com.azavea.androidvalidatedforms.validations.RequiredField;
+import com.azavea.androidvalidatedforms.validations.ValidationError;
+
+import java.util.List;
 
 /**
  * Represents a field that allows free-form text.
+ * <p/>
+ * For long text, such as multi-line notes, use {@link #setLongText(boolean)}: the text is then copied to the model
+ * once the user pauses typing, rather than on every keystroke.
+ * <p/>
+ * Text that does not convert to the type of the model field, or no text for a primitive model field, which cannot be
+ * cleared, is reported as a validation error; a primitive field keeps its previous value meanwhile.
+ * <p/>
+ * Text typed into a primitive {@code int}, {@code long} or {@code double} field is parsed straight from the text
+ * field, and set through the typed setters of the model, such as {@link FormModel#setIntValue}, so that keystrokes
+ * that do not change the number neither create a {@code String} nor box it.
  */
 public class EditTextController extends LabeledFieldController {
 
@@ -20,6 +42,72 @@ public class EditTextController extends LabeledFieldController {
 
     private int inputType;
     private final String placeholder;
+    private ValueConverter<Object> converter;
+    private boolean primitiveType;
+    // for primitive int, long and double fields, the converter parsing their text without boxing, otherwise null
+    private NumberConverter<?> numberConverter;
+    private Class<?> numberType;
+    private final NumberParser parser = new NumberParser();
+    private boolean longText = false;
+    private long commitDelay = DEFAULT_COMMIT_DELAY_MS;
+    private boolean commitPending = false;
+    // the model value the text was last set on the model as, or refreshed from
+    private Object committedValue;
+    // the input that could not be set on the model when the view was released, to show in the next view
+    private String unsetInput;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private static final long DEFAULT_COMMIT_DELAY_MS = 500;
+
+    // commits the text of a long text field to the model once the user pauses typing
+    private final Runnable commitRunnable = new Runnable() {
+        @Override
+        public void run() {
+            commitText();
+        }
+    };
+
+    // set on the EditText of this field, and removed when the view is released to another field
+    private final TextWatcher textWatcher = new TextWatcher() {
+        @Override
+        public void beforeTextChanged(CharSequence charSequence, int i, int i1, int i2) {
+        }
+
+        @Override
+        public void onTextChanged(CharSequence charSequence, int i, int i1, int i2) {
+        }
+
+        @Override
+        public void afterTextChanged(Editable editable) {
+            if (longText) {
+                scheduleCommit();
+                return;
+            }
+            if (numberConverter != null) {
+                setNumber(editable);
+                return;
+            }
+
+            // nothing to do if the text still represents the model value, such as after a refresh
+            if (converter.matches(editable, getModel().getValue(getName()))) {
+                setInputError(null);
+                return;
+            }
+            Object value = converter.fromText(editable);
+            if (!checkInput(editable, value)) {
+                return;
+            }
+            committedValue = value;
+            getModel().setValue(getName(), value, EditTextController.this);
+            setNeedsValidation();
+        }
+    };
+
+    private final FormModel.PendingValue pendingText = new FormModel.PendingValue() {
+        @Override
+        public void commit() {
+            commitText();
+        }
+    };
 
     /**
      * Constructs a new instance of an edit text field.
@@ -140,98 +228,262 @@ public class EditTextController extends LabeledFieldController {
         setInputTypeMask(InputType.TYPE_TEXT_VARIATION_PASSWORD, isSecureEntry);
     }
 
+    /**
+     * Enables or disables long text mode. In long text mode, the text is set on the model and validated only once the
+     * user has stopped typing for the commit delay, or when its value or the backing model object is read on the main
+     * thread, so that typing in a large text does not copy all of it on every keystroke. Readers on other threads
+     * only see the text committed before, unless {@link FormModel#flushPendingValues()} was called. Default is false.
+     *
+     * @param longText  if true, commit the text to the model after a pause in typing
+     */
+    public void setLongText(boolean longText) {
+        this.longText = longText;
+    }
+
+    /**
+     * Indicates whether this field is in long text mode.
+     *
+     * @return true if the text is committed to the model after a pause in typing, otherwise false
+     */
+    public boolean isLongText() {
+        return longText;
+    }
+
+    /**
+     * Sets how long the user must stop typing before the text of a long text field is set on the model. Default is
+     * 500 milliseconds.
+     *
+     * @param millis    the delay, in milliseconds
+     */
+    public void setCommitDelay(long millis) {
+        this.commitDelay = millis;
+    }
+
+    @Override
+    public boolean canCreateViewOffMainThread() {
+        // the view is a plain EditText; commits are posted to a handler on the main looper
+        return true;
+    }
+
     @Override
     protected View createFieldView() {
         final EditText editText = new EditText(getContext());
+        bindEditText(editText);
+        return editText;
+    }
+
+    @Override
+    protected boolean canRebindView() {
+        return true;
+    }
+
+    @Override
+    protected void onBindFieldView(View fieldView) {
+        bindEditText((EditText) fieldView);
+    }
+
+    /**
+     * Sets up an EditText, just created or taken over from another field, to show and edit this field.
+     */
+    private void bindEditText(EditText editText) {
         editText.setId(editTextId);
 
         editText.setSingleLine(!isMultiLine());
-        if (placeholder != null) {
-            editText.setHint(placeholder);
-        }
+        editText.setHint(placeholder);
         editText.setInputType(inputType);
-        refresh(editText);
-        editText.addTextChangedListener(new TextWatcher() {
-            @Override
-            public void beforeTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-            }
 
-            @Override
-            public void onTextChanged(CharSequence charSequence, int i, int i1, int i2) {
-            }
+        // resolve the backing type once, rather than on every keystroke
+        if (converter == null) {
+            resolveConverter();
+        }
+        showValue(editText);
+        editText.addTextChangedListener(textWatcher);
+    }
 
-            @Override
-            public void afterTextChanged(Editable editable) {
-                String editTextString = editText.getText().toString();
-                getModel().setValue(getName(), getCastValue(editTextString));
-                setNeedsValidation();
+    /**
+     * Looks up the converter for the type of the backing model field.
+     */
+    @SuppressWarnings("unchecked")
+    private void resolveConverter() {
+        Class modelClass = getModel().getBackingModelClass(getName());
+        primitiveType = modelClass != null && modelClass.isPrimitive();
+
+        converter = ValueConverters.forType(modelClass);
+        boolean typedSetter = modelClass == int.class || modelClass == long.class || modelClass == double.class;
+        numberConverter = typedSetter && converter instanceof NumberConverter ? (NumberConverter<?>) converter : null;
+        numberType = numberConverter != null ? modelClass : null;
+        if (converter == null) {
+            if (modelClass != null) {
+                Log.e(LOG_LABEL, "Unidentified edit text backing object class: " + modelClass);
+                Log.e(LOG_LABEL, "Edit text backing object should be a string or number type.");
             }
-        });
+            // will set the text as a string value if type not recognized
+            converter = (ValueConverter) ValueConverters.forType(String.class);
+        }
+    }
 
-        return editText;
+    private void scheduleCommit() {
+        if (!commitPending) {
+            commitPending = true;
+            getModel().setPendingValue(getName(), pendingText);
+        }
+        handler.removeCallbacks(commitRunnable);
+        handler.postDelayed(commitRunnable, commitDelay);
+    }
+
+    private void cancelCommit() {
+        handler.removeCallbacks(commitRunnable);
+        getModel().setPendingValue(getName(), null);
+        commitPending = false;
     }
 
     /**
-     * Get the value from the text field, cast to the appropriate type for the backing model.
-     *
-     * @param editTextString String input to the EditText field.
-     * @return Object of type modelClass, or null if cast failed
+     * Sets the text of a long text field on the model, then validates it.
      */
-    private Object getCastValue(String editTextString) {
-        Object value = editTextString;
-        Class modelClass = getModel().getBackingModelClass(getName());
+    private void commitText() {
+        if (!commitPending) {
+            return;
+        }
+        cancelCommit();
 
-        if (CharSequence.class.isAssignableFrom(modelClass)) {
-            // if it is a string type, we're done
-            return value != null ? value : "";
+        if (!isViewCreated()) {
+            return;
+        }
+        Editable text = getEditText().getText();
+        Object value = converter.fromText(text);
+        if (checkInput(text, value)) {
+            committedValue = value;
+            getModel().setValue(getName(), value, this);
+            setNeedsValidation();
         }
 
-        if (editTextString.isEmpty()) {
-            return null;
+        // validate now that the user has paused, and update any error shown
+        List<ValidationError> errors = validateInput();
+        if (getError() != null) {
+            setError(errors.isEmpty() ? null : errors.get(0).getMessage(getContext().getResources()));
         }
+    }
 
-        try {
-            // allow use of EditText for numeric types
-            if (Integer.class.isAssignableFrom(modelClass)) {
-                value = Integer.valueOf(editTextString);
-            } else if (Double.class.isAssignableFrom(modelClass)) {
-                value = Double.valueOf(editTextString);
-            } else if (Float.class.isAssignableFrom(modelClass)) {
-                value = Float.valueOf(editTextString);
-            } else if (Long.class.isAssignableFrom(modelClass)) {
-                value = Long.valueOf(editTextString);
-            } else {
-                Log.e(LOG_LABEL, "Unidentified edit text backing object class: " + modelClass);
-                Log.e(LOG_LABEL, "Edit text backing object should be a string or number type.");
+    /**
+     * Sets the number typed into a primitive int, long or double field on the model, through its typed setter.
+     *
+     * @param text  the text of the field
+     */
+    private void setNumber(CharSequence text) {
+        if (!numberConverter.parse(text, parser)) {
+            // empty text, or text that is not a number; the field keeps its value
+            checkInput(text, null);
+            return;
+        }
+        setInputError(null);
+
+        FormModel model = getModel();
+        String name = getName();
+        if (numberType == int.class) {
+            int value = (int) parser.getLong();
+            if (model.getIntValue(name, 0) == value) {
+                return;
+            }
+            model.setIntValue(name, value, this);
+            // boxed only when the number changes, as the change notification of the model is
+            committedValue = value;
+        } else if (numberType == long.class) {
+            long value = parser.getLong();
+            if (model.getLongValue(name, 0) == value) {
+                return;
+            }
+            model.setLongValue(name, value, this);
+            committedValue = value;
+        } else {
+            double value = parser.getDouble();
+            // same comparison as Double.equals, as setValue uses
+            if (Double.compare(model.getDoubleValue(name, 0), value) == 0) {
+                return;
             }
-        } catch (NumberFormatException ex) {
-            // might happen if user is in middle of entering a value and has only input
-            // a negative sign or decimal point
-            Log.d(LOG_LABEL, "Could not parse '" + editTextString + "' as a number");
-            value = null;
-        } catch (Exception ex) {
-            // will return original string value if type not recognized
-            Log.e(LOG_LABEL, "Failed to check appropriate type on EditText field " + getName());
-            ex.printStackTrace();
+            model.setDoubleValue(name, value, this);
+            committedValue = value;
         }
+        setNeedsValidation();
+    }
 
-        return value;
+    /**
+     * Reports text that cannot be set on the model as a validation error: text that does not convert to the type of
+     * the model field, or no text for a primitive field, which cannot be cleared and keeps its previous value.
+     *
+     * @param text  the text of the field
+     * @param value the value converted from the text
+     * @return      true if the value can be set on the model, otherwise false
+     */
+    private boolean checkInput(CharSequence text, Object value) {
+        if (value == null && text.length() > 0) {
+            setInputError(new InvalidInputError(getName(), getLabel()));
+        } else if (value == null && primitiveType) {
+            setInputError(new RequiredField(getName(), getLabel()));
+        } else {
+            setInputError(null);
+            return true;
+        }
+        // text that does not convert still clears a field that can be cleared
+        return !primitiveType;
+    }
+
+    @Override
+    protected void onViewReleased() {
+        // keep the text typed into the view that is going away
+        commitText();
+        EditText editText = getEditText();
+        editText.removeTextChangedListener(textWatcher);
+        unsetInput = hasInputError() ? editText.getText().toString() : null;
+        super.onViewReleased();
+    }
+
+    /**
+     * Shows the value of this field in an EditText that was just created or taken over from another field: the input
+     * that could not be set on the model if the model has not changed since, otherwise the model value. Unlike a
+     * refresh, this does not mark the field as needing validation, as changes to the model already do.
+     */
+    private void showValue(EditText editText) {
+        Object modelVal = getModel().getValue(getName());
+        if (unsetInput != null && hasInputError() && objectsEqual(modelVal, committedValue)) {
+            editText.setText(unsetInput);
+        } else {
+            committedValue = modelVal;
+            setInputError(null);
+            editText.setText(modelVal != null ? converter.toText(modelVal) : "");
+        }
+        unsetInput = null;
     }
 
     private void refresh(EditText editText) {
         Object modelVal = getModel().getValue(getName());
-        Object controlVal = getCastValue(editText.getText().toString());
 
-        if (controlVal == null && modelVal == null) {
+        if (commitPending) {
+            if (objectsEqual(modelVal, committedValue)) {
+                // the model has not changed since the text was last committed, so keep what the user typed since
+                commitText();
+                return;
+            }
+            // the model was changed by other code since the user typed, so its value wins
+            cancelCommit();
+        }
+
+        if (hasInputError() && objectsEqual(modelVal, committedValue)) {
+            // keep showing the input that could not be set on the model, with its error, until the model changes
             return;
         }
 
-        if (controlVal == null || !controlVal.equals(modelVal)) {
-            editText.setText(modelVal != null ? modelVal.toString() : "");
+        committedValue = modelVal;
+        setInputError(null);
+        if (!converter.matches(editText.getText(), modelVal)) {
+            editText.setText(modelVal != null ? converter.toText(modelVal) : "");
             setNeedsValidation();
         }
     }
 
+    private static boolean objectsEqual(Object a, Object b) {
+        return a == b || (a != null && a.equals(b));
+    }
+
     @Override
     public void refresh() {
         refresh(getEditText());
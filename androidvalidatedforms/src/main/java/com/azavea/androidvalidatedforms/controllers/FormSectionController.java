@@ -2,6 +2,7 @@ package com.azavea.androidvalidatedforms.controllers;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -15,6 +16,7 @@ import android.widget.TextView;
 
 import com.azavea.androidvalidatedforms.R;
 import com.azavea.androidvalidatedforms.FormElementController;
+import com.azavea.androidvalidatedforms.validations.ValidationError;
 
 /**
  * Represents a section in a form. A form section represents a grouping of {@code FormElementController}s that are
@@ -26,6 +28,21 @@ public class FormSectionController extends FormElementController {
     private final String title;
     private final Map<String,FormElementController> elements = new HashMap<String,FormElementController>();
     private final List<FormElementController> orderedElements = new ArrayList<FormElementController>();
+    private boolean collapsible = false;
+    private boolean expanded = true;
+    private ExpansionListener expansionListener;
+
+    /**
+     * Listener notified when a collapsible section is expanded or collapsed.
+     */
+    public interface ExpansionListener {
+        /**
+         * Called after the section has been expanded or collapsed.
+         *
+         * @param section   the section whose state changed; see {@link #isExpanded()}
+         */
+        void onSectionExpansionChanged(FormSectionController section);
+    }
 
     /**
      * Creates a new instance of a form section with a specified name and title.
@@ -65,6 +82,80 @@ public class FormSectionController extends FormElementController {
         return title;
     }
 
+    /**
+     * Sets whether this section can be collapsed by tapping its title. A collapsible section starts out collapsed, and
+     * the views of its elements are not created until it is first expanded. The elements can still be validated while
+     * collapsed, and a collapsed section is expanded when errors are shown on its elements. Only sections with a title
+     * can be collapsible. Default is false.
+     *
+     * @param collapsible   if true, the section starts collapsed and can be expanded by the user
+     * @throws IllegalArgumentException if {@code collapsible} is true and the section has no title to tap
+     */
+    public void setCollapsible(boolean collapsible) {
+        if (collapsible && TextUtils.isEmpty(title)) {
+            throw new IllegalArgumentException("Sections without a title cannot be collapsible");
+        }
+
+        boolean wasExpanded = expanded;
+        this.collapsible = collapsible;
+        this.expanded = !collapsible;
+        if (isViewCreated()) {
+            updateClickListener(getView());
+            updateExpansionIndicator(getView());
+        }
+        if (expanded != wasExpanded && expansionListener != null) {
+            expansionListener.onSectionExpansionChanged(this);
+        }
+    }
+
+    /**
+     * Indicates whether this section can be collapsed.
+     *
+     * @return true if this section is collapsible, otherwise false
+     */
+    public boolean isCollapsible() {
+        return collapsible;
+    }
+
+    /**
+     * Indicates whether the elements of this section are displayed. Sections that are not collapsible are always
+     * expanded.
+     *
+     * @return true if this section is expanded, otherwise false
+     */
+    public boolean isExpanded() {
+        return expanded;
+    }
+
+    /**
+     * Expands or collapses this section. Has no effect on sections that are not collapsible.
+     *
+     * @param expanded  if true, display the elements of this section; otherwise hide them
+     */
+    public void setExpanded(boolean expanded) {
+        if (!collapsible || this.expanded == expanded) {
+            return;
+        }
+
+        this.expanded = expanded;
+        if (isViewCreated()) {
+            updateExpansionIndicator(getView());
+        }
+        if (expansionListener != null) {
+            expansionListener.onSectionExpansionChanged(this);
+        }
+    }
+
+    /**
+     * Sets the listener to notify when this section is expanded or collapsed. Used by the form to show or hide the
+     * views of the section's elements.
+     *
+     * @param listener  the listener to notify, or null
+     */
+    public void setExpansionListener(ExpansionListener listener) {
+        this.expansionListener = listener;
+    }
+
     /**
      * Adds a form element to this section. Note that sub-sections are not supported.
      *
@@ -168,6 +259,65 @@ public class FormSectionController extends FormElementController {
         return elements.size();
     }
 
+    /**
+     * Returns a list of validation errors of the input of the fields in this section.
+     *
+     * @return a list of validation errors of this section's input
+     */
+    public List<ValidationError> validateInput() {
+        List<ValidationError> errors = new ArrayList<ValidationError>();
+        for (FormElementController element : orderedElements) {
+            if (element instanceof LabeledFieldController) {
+                errors.addAll(((LabeledFieldController)element).validateInput());
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Indicates if the input of the fields in this section is valid. Stops at the first invalid field, checking the
+     * fields that failed their last validation first.
+     *
+     * @return  true if the input of this section is valid, otherwise false
+     */
+    public boolean isValidInput() {
+        return isValidInput(Collections.singletonList(this));
+    }
+
+    /**
+     * Indicates if the input of the fields in the given sections is valid. Stops at the first invalid field, checking
+     * the fields that failed their last validation first.
+     *
+     * @param sections  the sections to check
+     * @return          true if the input of every section is valid, otherwise false
+     */
+    public static boolean isValidInput(List<FormSectionController> sections) {
+        // check the fields most likely to fail first, then everything else
+        for (int pass = 0; pass < 2; pass++) {
+            boolean checkFailedFields = pass == 0;
+            for (FormSectionController section : sections) {
+                for (FormElementController element : section.orderedElements) {
+                    if (element instanceof LabeledFieldController) {
+                        LabeledFieldController field = (LabeledFieldController)element;
+                        if (field.hasFailedLastValidation() == checkFailedFields && field.hasValidationErrors()) {
+                            return false;
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Removes the displayed validation errors from the elements of this section.
+     */
+    public void resetErrors() {
+        for (FormElementController element : orderedElements) {
+            element.setError(null);
+        }
+    }
+
     @Override
     protected View createView() {
         LayoutInflater layoutInflater = LayoutInflater.from(getContext());
@@ -175,12 +325,7 @@ public class FormSectionController extends FormElementController {
         View view;
         if (!TextUtils.isEmpty(getTitle())) {
             view = layoutInflater.inflate(R.layout.form_section, null);
-            view.setOnClickListener(null);
-            view.setOnLongClickListener(null);
-            view.setLongClickable(false);
-
-            final TextView sectionView = (TextView) view.findViewById(R.id.list_item_section_text);
-            sectionView.setText(title);
+            showTitle(view);
         } else {
             view = layoutInflater.inflate(R.layout.separator, null);
         }
@@ -188,10 +333,70 @@ public class FormSectionController extends FormElementController {
         return view;
     }
 
+    @Override
+    protected boolean canRebindView() {
+        return true;
+    }
+
+    @Override
+    protected int getViewLayout() {
+        // a section with a title, or a plain separator
+        return TextUtils.isEmpty(getTitle()) ? 1 : 0;
+    }
+
+    @Override
+    protected void onBindView(View view) {
+        if (!TextUtils.isEmpty(getTitle())) {
+            showTitle(view);
+        }
+    }
+
+    private void showTitle(View view) {
+        updateClickListener(view);
+        view.setOnLongClickListener(null);
+        view.setLongClickable(false);
+
+        final TextView sectionView = (TextView) view.findViewById(R.id.list_item_section_text);
+        sectionView.setText(title);
+        updateExpansionIndicator(view);
+    }
+
+    @Override
+    public boolean canCreateViewOffMainThread() {
+        return true;
+    }
+
+    private void updateClickListener(View view) {
+        if (collapsible) {
+            view.setOnClickListener(new View.OnClickListener() {
+                @Override
+                public void onClick(View v) {
+                    setExpanded(!expanded);
+                }
+            });
+        } else {
+            view.setOnClickListener(null);
+            view.setClickable(false);
+        }
+    }
+
+    private void updateExpansionIndicator(View view) {
+        TextView sectionView = (TextView) view.findViewById(R.id.list_item_section_text);
+        if (sectionView == null) {
+            return;
+        }
+
+        int indicator = 0;
+        if (collapsible) {
+            indicator = expanded ? android.R.drawable.arrow_up_float : android.R.drawable.arrow_down_float;
+        }
+        sectionView.setCompoundDrawablesWithIntrinsicBounds(0, 0, indicator, 0);
+    }
+
     @Override
     public void refresh() {
         for (FormElementController element : orderedElements) {
-            element.refresh();
+            element.requestRefresh();
         }
     }
 
@@ -102,9 +102,24 @@ public class ImageController<T extends Context & FormActivityBase> extends Label
             refresh();
         }
 
+        // show any error set while the view did not exist
+        setError(getError());
+
         return view;
     }
 
+    @Override
+    protected void onViewReleased() {
+        super.onViewReleased();
+        imageView = null;
+    }
+
+    @Override
+    public boolean canCreateViewOffMainThread() {
+        // creating the view starts a task to load the image, which must happen on the main thread
+        return false;
+    }
+
     @Override
     protected View createFieldView() {
         // using a custom layout, so nothing to do here
@@ -0,0 +1,94 @@
+package com.azavea.androidvalidatedforms.controllers;
+
+import android.content.Context;
+import android.text.InputType;
+
+import com.azavea.androidvalidatedforms.validations.OutOfRangeError;
+import com.azavea.androidvalidatedforms.validations.ValidationError;
+
+import java.util.List;
+
+/**
+ * Represents a field that allows entering a whole number.
+ * <p/>
+ * For the field value, the associated FormModel must hold an {@code int} or an {@code Integer}. No value can be
+ * represented by {@code null} on an {@code Integer} field.
+ */
+public class IntFieldController extends NumericFieldController {
+    private int min = Integer.MIN_VALUE;
+    private int max = Integer.MAX_VALUE;
+
+    /**
+     * Constructs a new instance of a whole number field.
+     *
+     * @param ctx           the Android context
+     * @param name          the name of the field
+     * @param labelText     the label to display beside the field. Set to {@code null} to not show a label.
+     * @param placeholder   a placeholder text to show when the input field is empty. If null, no placeholder is displayed
+     * @param isRequired    indicates if the field is required or not
+     */
+    public IntFieldController(Context ctx, String name, String labelText, String placeholder, boolean isRequired) {
+        super(ctx, name, labelText, placeholder, isRequired,
+                InputType.TYPE_CLASS_NUMBER | InputType.TYPE_NUMBER_FLAG_SIGNED);
+    }
+
+    /**
+     * Sets the range of values this field accepts. Values outside it are reported as validation errors.
+     *
+     * @param min   the smallest allowed value
+     * @param max   the largest allowed value
+     */
+    public void setRange(int min, int max) {
+        this.min = min;
+        this.max = max;
+        setNeedsValidation();
+    }
+
+    /**
+     * Returns the smallest value this field accepts.
+     *
+     * @return the smallest allowed value
+     */
+    public int getMin() {
+        return min;
+    }
+
+    /**
+     * Returns the largest value this field accepts.
+     *
+     * @return the largest allowed value
+     */
+    public int getMax() {
+        return max;
+    }
+
+    @Override
+    protected boolean parse(CharSequence text) {
+        return parser.parseLong(text, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    @Override
+    protected boolean isParsedValueInModel() {
+        return getModel().getIntValue(getName(), 0) == (int) parser.getLong();
+    }
+
+    @Override
+    protected void setParsedValueOnModel() {
+        getModel().setIntValue(getName(), (int) parser.getLong(), this);
+    }
+
+    @Override
+    protected String formatModelValue() {
+        return Integer.toString(getModel().getIntValue(getName(), 0));
+    }
+
+    @Override
+    protected void validateValue(Object value, List<ValidationError> errors) {
+        if (value instanceof Number) {
+            int number = ((Number) value).intValue();
+            if (number < min || number > max) {
+                errors.add(new OutOfRangeError(getName(), getLabel(), min, max));
+            }
+        }
+    }
+}
@@ -13,10 +13,11 @@ import com.azavea.androidvalidatedforms.validations.HibernateValidatorInstance;
 import com.azavea.androidvalidatedforms.validations.HibernationError;
 import com.azavea.androidvalidatedforms.validations.RequiredField;
 import com.azavea.androidvalidatedforms.validations.ValidationError;
+import com.azavea.androidvalidatedforms.views.CompactFieldLayout;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Set;
 
 import javax.validation.ConstraintViolation;
 import javax.validation.Validator;
@@ -29,8 +30,13 @@ public abstract class LabeledFieldController extends FormElementController {
     private boolean required;
     private View fieldView;
     protected TextView errorView;
+    private CompactFieldLayout compactView;
+    private boolean compactLayout = false;
+    private String errorMessage;
     private boolean needsValidation;
+    private boolean lastValidationFailed;
     private List<ValidationError> errors;
+    private ValidationError inputError;
 
     /**
      * Creates a labeled field.
@@ -68,6 +74,26 @@ public abstract class LabeledFieldController extends FormElementController {
         this.required = required;
     }
 
+    /**
+     * Sets whether this field uses a single compact view that draws its label and error message around the input,
+     * instead of inflating the {@code form_labeled_element} layout. This reduces the number of views per field, which
+     * speeds up opening long forms. Must be set before the view is created. Default is false.
+     *
+     * @param compactLayout if true, use the compact view for this field
+     */
+    public void setCompactLayout(boolean compactLayout) {
+        this.compactLayout = compactLayout;
+    }
+
+    /**
+     * Indicates whether this field uses a single compact view for its label, input and error message.
+     *
+     * @return true if this field uses the compact view, otherwise false
+     */
+    public boolean isCompactLayout() {
+        return compactLayout;
+    }
+
     /**
      * Marks field as needing to be validated. Flag cleared when validation is run.
      *
@@ -77,6 +103,34 @@ public abstract class LabeledFieldController extends FormElementController {
         this.needsValidation = true;
     }
 
+    /**
+     * Sets the error of input that this field displays but could not set on the model, such as text that is not a
+     * number, or no text for a primitive model field, which cannot be cleared and keeps its previous value. While
+     * set, it is the only validation error of this field, as the model value it would otherwise validate is stale.
+     * <p/>
+     * Call this in implementations whenever the input changes: with an error when the input cannot be set on the
+     * model, and with null when it can.
+     *
+     * @param error the error of the input, such as a {@link RequiredField} or an
+     *              {@link com.azavea.androidvalidatedforms.validations.InvalidInputError}, or null if the input is valid
+     */
+    protected void setInputError(ValidationError error) {
+        if (error == null && inputError == null) {
+            return;
+        }
+        inputError = error;
+        needsValidation = true;
+    }
+
+    /**
+     * Indicates whether the input of this field could not be set on the model; see {@link #setInputError}.
+     *
+     * @return true if the model does not hold the input displayed by this field, otherwise false
+     */
+    protected boolean hasInputError() {
+        return inputError != null;
+    }
+
     /**
      * Indicates whether this field requires an input value.
      *
@@ -92,7 +146,63 @@ public abstract class LabeledFieldController extends FormElementController {
      * @return  true if there are some validation errors, otherwise false
      */
     public boolean isValidInput() {
-        return validateInput().isEmpty();
+        return !hasValidationErrors();
+    }
+
+    /**
+     * Indicates whether the last validation of this field found errors. Used to check the fields most likely to fail
+     * first when only a yes or no answer is needed.
+     *
+     * @return  true if the field was invalid when last validated, otherwise false
+     */
+    public boolean hasFailedLastValidation() {
+        return lastValidationFailed;
+    }
+
+    /**
+     * Checks whether the input of this field has any validation errors, stopping at the first constraint violation.
+     * Unlike {@link #validateInput()}, this does not build the full list of errors for an invalid field; it will be
+     * built the next time {@code validateInput()} is called.
+     *
+     * @return  true if there is at least one validation error, otherwise false
+     */
+    public boolean hasValidationErrors() {
+        if (!needsValidation) {
+            return !errors.isEmpty();
+        }
+
+        if (inputError != null) {
+            return !validateInput().isEmpty();
+        }
+
+        String name = getName();
+        final FormModel model = this.getModel();
+        Object value = model.getValue(name);
+
+        if (restoreErrors(value)) {
+            return !errors.isEmpty();
+        }
+
+        if (value != null) {
+            Validator validator = HibernateValidatorInstance.getFailFastValidator();
+            Object modelObject = model.getBackingModelObject();
+
+            List<ValidationError> fieldErrors = new ArrayList<>();
+            if (validator.validateProperty(modelObject, name).isEmpty()) {
+                validateValue(value, fieldErrors);
+                if (fieldErrors.isEmpty()) {
+                    setErrors(fieldErrors, value);
+                    return false;
+                }
+            }
+
+            // leave the field marked as needing validation, so the full list of errors gets built when needed
+            lastValidationFailed = true;
+            return true;
+        }
+
+        // with no value, the complete result is known without running the validator
+        return !validateInput().isEmpty();
     }
 
     /**
@@ -108,7 +218,61 @@ public abstract class LabeledFieldController extends FormElementController {
             return errors;
         }
 
-        errors = new ArrayList<>();
+        if (restoreErrors(getModel().getValue(getName()))) {
+            return errors;
+        }
+
+        return buildErrors(null);
+    }
+
+    /**
+     * Indicates whether the value of this field has changed since it was last validated.
+     *
+     * @return  true if the field needs to be validated again, otherwise false
+     */
+    public boolean isValidationNeeded() {
+        return needsValidation;
+    }
+
+    /**
+     * Sets the validation result of this field from the violations found by validating the whole backing model
+     * object at once, instead of validating this field's property on its own. The violations are ignored if this field
+     * does not need validation, or its result was stored for the current value.
+     *
+     * @param violations    the violations whose property path is this field; may be empty
+     * @return              a list containing all the validation errors
+     */
+    public List<ValidationError> applyBeanViolations(Collection<? extends ConstraintViolation<?>> violations) {
+        if (!needsValidation || restoreErrors(getModel().getValue(getName()))) {
+            return errors;
+        }
+        return buildErrors(violations);
+    }
+
+    /**
+     * Reuses the validation result stored on the model for the current value of this field, if this field has not
+     * been validated since it was created, such as after a configuration change or process restart. Lets the form
+     * leave out fields with a stored result when deciding whether to validate the whole model object at once.
+     *
+     * @return  true if this field does not need to be validated, otherwise false
+     */
+    public boolean restoreValidationResult() {
+        return !needsValidation || restoreErrors(getModel().getValue(getName()));
+    }
+
+    /**
+     * Builds the list of validation errors for the current value of this field.
+     *
+     * @param violations    the violations for this field, or null to run the validator on this field's property
+     */
+    private List<ValidationError> buildErrors(Collection<? extends ConstraintViolation<?>> violations) {
+        List<ValidationError> errors = new ArrayList<>();
+        if (inputError != null) {
+            errors.add(inputError);
+            setErrors(errors, null);
+            return errors;
+        }
+
         String name = getName();
         String label = getLabel();
         final FormModel model = this.getModel();
@@ -116,22 +280,67 @@ public abstract class LabeledFieldController extends FormElementController {
 
         if (value != null) {
             // cannot run Hibernate Validator on null object
-            Validator validator = HibernateValidatorInstance.getValidator();
-            Object modelObject = model.getBackingModelObject();
+            if (violations == null) {
+                Validator validator = HibernateValidatorInstance.getValidator();
+                Object modelObject = model.getBackingModelObject();
+                violations = validator.validateProperty(modelObject, name);
+            }
 
-            Set<ConstraintViolation<Object>> violations = validator.validateProperty(modelObject, name);
             for (ConstraintViolation violation: violations) {
                 errors.add(new HibernationError(name, label, violation));
             }
+            validateValue(value, errors);
         } else if (isRequired()) {
             // have null required field
             errors.add(new RequiredField(name, label));
         }
 
-        needsValidation = false;
+        setErrors(errors, value);
         return errors;
     }
 
+    /**
+     * Checks a non-null value of this field against constraints of the field itself, in addition to the constraints
+     * annotated on the model. Called by every validation of this field. Does nothing by default.
+     *
+     * @param value     the current value of the field
+     * @param errors    the list to add any validation errors to
+     */
+    protected void validateValue(Object value, List<ValidationError> errors) {
+    }
+
+    private void setErrors(List<ValidationError> errors, Object value) {
+        this.errors = errors;
+        lastValidationFailed = !errors.isEmpty();
+        needsValidation = false;
+        if (inputError == null) {
+            getModel().putValidationResult(getName(), value, required, errors);
+        }
+    }
+
+    /**
+     * If this field has not been validated since it was created, reuses the validation result stored on the model,
+     * such as one kept from before a configuration change or process restart, if it was for the same value.
+     *
+     * @param value the current value of the field
+     * @return true if a stored result was restored, otherwise false
+     */
+    private boolean restoreErrors(Object value) {
+        if (errors != null || inputError != null) {
+            return false;
+        }
+
+        List<ValidationError> storedErrors = getModel().getValidationResult(getName(), value, required);
+        if (storedErrors == null) {
+            return false;
+        }
+
+        this.errors = storedErrors;
+        lastValidationFailed = !storedErrors.isEmpty();
+        needsValidation = false;
+        return true;
+    }
+
     /**
      * Returns the associated view for the field (without the label view) of this element.
      *
@@ -153,6 +362,14 @@ public abstract class LabeledFieldController extends FormElementController {
 
     @Override
     protected View createView() {
+        if (compactLayout) {
+            compactView = new CompactFieldLayout(getContext());
+            compactView.setLabel(labelText);
+            compactView.addView(getFieldView());
+            setError(errorMessage);
+            return compactView;
+        }
+
         LayoutInflater inflater = (LayoutInflater)getContext().getSystemService(Context.LAYOUT_INFLATER_SERVICE);
         View view = inflater.inflate(R.layout.form_labeled_element, null);
         errorView = (TextView) view.findViewById(R.id.field_error);
@@ -167,11 +384,82 @@ public abstract class LabeledFieldController extends FormElementController {
         FrameLayout container = (FrameLayout)view.findViewById(R.id.field_container);
         container.addView(getFieldView());
 
+        // show any error set while the view did not exist
+        setError(errorMessage);
+
         return view;
     }
 
+    @Override
+    protected int getViewLayout() {
+        return compactLayout ? 1 : 0;
+    }
+
+    @Override
+    protected void onBindView(View view) {
+        if (compactLayout) {
+            compactView = (CompactFieldLayout) view;
+            compactView.setLabel(labelText);
+            fieldView = compactView.getChildAt(0);
+        } else {
+            errorView = (TextView) view.findViewById(R.id.field_error);
+
+            TextView label = (TextView) view.findViewById(R.id.field_label);
+            if (labelText == null) {
+                label.setVisibility(View.GONE);
+            } else {
+                label.setText(labelText);
+                label.setVisibility(View.VISIBLE);
+            }
+
+            FrameLayout container = (FrameLayout) view.findViewById(R.id.field_container);
+            fieldView = container.getChildAt(0);
+        }
+
+        onBindFieldView(fieldView);
+        setError(errorMessage);
+    }
+
+    /**
+     * Called when this field takes over a view created by another field of the same class and layout; see
+     * {@link #onBindView(View)}. The label and error message are shown by this class; implementations must set their
+     * listeners on the field view and show the value or input of this field in it.
+     *
+     * @param fieldView the view created by {@link #createFieldView()} for the other field
+     */
+    protected void onBindFieldView(View fieldView) {
+        throw new UnsupportedOperationException(getClass().getName() + " cannot rebind views");
+    }
+
+    @Override
+    protected void onViewReleased() {
+        fieldView = null;
+        errorView = null;
+        compactView = null;
+    }
+
+    /**
+     * Returns the validation error message displayed on this field.
+     *
+     * @return the error message, or null if no error is displayed
+     */
+    public String getError() {
+        return errorMessage;
+    }
+
     @Override
     public void setError(String message) {
+        errorMessage = message;
+        if (compactView != null) {
+            compactView.setError(message);
+            return;
+        }
+
+        if (errorView == null) {
+            // view not created yet; message will be shown once it is
+            return;
+        }
+
         if (message == null) {
             errorView.setVisibility(View.GONE);
         } else {
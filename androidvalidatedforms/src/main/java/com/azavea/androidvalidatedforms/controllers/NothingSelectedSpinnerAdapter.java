@@ -8,11 +8,16 @@ import android.view.ViewGroup;
 import android.widget.ListAdapter;
 import android.widget.SpinnerAdapter;
 
+import com.azavea.androidvalidatedforms.R;
+
 /**
  * Decorator Adapter to allow a Spinner to show a 'Nothing Selected...' initially displayed instead
  * of the first choice in the Adapter.
  *
  * Adapted from http://stackoverflow.com/a/12221309/120930
+ *
+ * Spinner does not support multiple view types, so rows are recycled by tagging the 'Nothing Selected' rows: those
+ * are only reused for the first position, and only the other rows are handed back to the wrapped adapter.
  */
 class NothingSelectedSpinnerAdapter implements SpinnerAdapter, ListAdapter {
 
@@ -55,9 +60,12 @@ class NothingSelectedSpinnerAdapter implements SpinnerAdapter, ListAdapter {
     public final View getView(int position, View convertView, ViewGroup parent) {
         // This provides the View for the Selected Item in the Spinner, not the dropdown (unless dropdownView not set)
         if (position == 0) {
-            return getNothingSelectedView(parent);
+            if (isNothingSelectedRow(convertView)) {
+                return convertView;
+            }
+            return markNothingSelectedRow(getNothingSelectedView(parent));
         }
-        return adapter.getView(position - EXTRA, null, parent); // could re-use the convertView if possible
+        return adapter.getView(position - EXTRA, getRecyclableView(convertView), parent);
     }
 
     /**
@@ -74,10 +82,34 @@ class NothingSelectedSpinnerAdapter implements SpinnerAdapter, ListAdapter {
     public View getDropDownView(int position, View convertView, ViewGroup parent) {
         // BUG! Vote to fix!! http://code.google.com/p/android/issues/detail?id=17128 - Spinner does not support multiple view types
         if (position == 0) {
-            return nothingSelectedDropdownLayout == -1 ? new View(context) : getNothingSelectedDropdownView(parent);
+            if (isNothingSelectedRow(convertView)) {
+                return convertView;
+            }
+            View view = nothingSelectedDropdownLayout == -1 ? new View(context) : getNothingSelectedDropdownView(parent);
+            return markNothingSelectedRow(view);
         }
 
-        return adapter.getDropDownView(position - EXTRA, null, parent);  // could re-use the convertView if possible, utilize setTag...
+        return adapter.getDropDownView(position - EXTRA, getRecyclableView(convertView), parent);
+    }
+
+    private static boolean isNothingSelectedRow(View view) {
+        return view != null && view.getTag(R.id.nothing_selected_row) != null;
+    }
+
+    private static View markNothingSelectedRow(View view) {
+        view.setTag(R.id.nothing_selected_row, Boolean.TRUE);
+        return view;
+    }
+
+    /**
+     * Returns the given view if the wrapped adapter can recycle it, otherwise null.
+     */
+    private View getRecyclableView(View convertView) {
+        // rows of a wrapped adapter with several view types cannot be told apart
+        if (isNothingSelectedRow(convertView) || adapter.getViewTypeCount() != 1) {
+            return null;
+        }
+        return convertView;
     }
 
     /**
@@ -0,0 +1,232 @@
+package com.azavea.androidvalidatedforms.controllers;
+
+import android.content.Context;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.view.View;
+import android.widget.EditText;
+
+import com.azavea.androidvalidatedforms.FormController;
+import com.azavea.androidvalidatedforms.utils.NumberParser;
+import com.azavea.androidvalidatedforms.validations.InvalidInputError;
+import com.azavea.androidvalidatedforms.validations.RequiredField;
+
+/**
+ * Base class for the fields that allow entering a number of a given primitive type. The number is parsed from the
+ * text as it is typed, and set on the model through its typed setters, such as
+ * {@link com.azavea.androidvalidatedforms.FormModelEnclosure.FormModel#setIntValue}, so that primitive model fields
+ * are read and written without boxing.
+ * <p/>
+ * The model field may also be of the boxed type, in which case clearing the text sets it to null. A primitive field
+ * cannot be cleared: while its text is empty, it keeps its last value and reports a
+ * {@link com.azavea.androidvalidatedforms.validations.RequiredField} error, whether or not the field is required.
+ * Text that is not a number is reported as an
+ * {@link com.azavea.androidvalidatedforms.validations.InvalidInputError} for either type. A primitive field always
+ * holds a number, so it shows 0 before any input; use the boxed type for a field that may be left empty.
+ */
+public abstract class NumericFieldController extends LabeledFieldController {
+    private final int editTextId = FormController.generateViewId();
+
+    private final String placeholder;
+    private final int inputType;
+    private boolean primitiveType;
+    private boolean typeResolved = false;
+    // the text of the model value when the input of a primitive field could not be set on it
+    private String staleModelText;
+    // the input that could not be set on the model when the view was released, to show in the next view
+    private String unsetInput;
+
+    // set on the EditText of this field, and removed when the view is released to another field
+    private final TextWatcher textWatcher = new TextWatcher() {
+        @Override
+        public void beforeTextChanged(CharSequence charSequence, int i, int i1, int i2) {
+        }
+
+        @Override
+        public void onTextChanged(CharSequence charSequence, int i, int i1, int i2) {
+        }
+
+        @Override
+        public void afterTextChanged(Editable editable) {
+            if (!parse(editable)) {
+                // empty or partial input, such as a lone minus sign; a primitive field keeps its value
+                if (editable.length() > 0) {
+                    setInputError(new InvalidInputError(getName(), getLabel()));
+                } else {
+                    setInputError(primitiveType ? new RequiredField(getName(), getLabel()) : null);
+                }
+                if (primitiveType) {
+                    staleModelText = formatModelValue();
+                } else if (getModel().getValue(getName()) != null) {
+                    getModel().setValue(getName(), null, NumericFieldController.this);
+                    setNeedsValidation();
+                }
+                return;
+            }
+
+            setInputError(null);
+            if (!hasModelValue() || !isParsedValueInModel()) {
+                setParsedValueOnModel();
+                setNeedsValidation();
+            }
+        }
+    };
+
+    /**
+     * Parses the text of the field; holds the value of the last successful parse.
+     */
+    protected final NumberParser parser = new NumberParser();
+
+    /**
+     * Constructs a new instance of a numeric field.
+     *
+     * @param ctx           the Android context
+     * @param name          the name of the field
+     * @param labelText     the label to display beside the field. Set to {@code null} to not show a label.
+     * @param placeholder   a placeholder text to show when the input field is empty. If null, no placeholder is displayed
+     * @param isRequired    indicates if the field is required or not
+     * @param inputType     the content type of the text box, as defined by {@link android.text.InputType}
+     */
+    protected NumericFieldController(Context ctx, String name, String labelText, String placeholder, boolean isRequired, int inputType) {
+        super(ctx, name, labelText, isRequired);
+        this.placeholder = placeholder;
+        this.inputType = inputType;
+    }
+
+    /**
+     * Returns the EditText view associated with this element.
+     *
+     * @return the EditText view associated with this element
+     */
+    public EditText getEditText() {
+        return (EditText)getView().findViewById(editTextId);
+    }
+
+    /**
+     * Parses text into {@link #parser}.
+     *
+     * @param text  the text to parse
+     * @return      true if the text is a number of this field's type, otherwise false
+     */
+    protected abstract boolean parse(CharSequence text);
+
+    /**
+     * Indicates whether the number last parsed is the value of the model field.
+     *
+     * @return true if the model already holds the parsed number, otherwise false
+     */
+    protected abstract boolean isParsedValueInModel();
+
+    /**
+     * Sets the number last parsed on the model.
+     */
+    protected abstract void setParsedValueOnModel();
+
+    /**
+     * Returns the text to display for the current value of the model field, which is known to be set.
+     *
+     * @return the text representing the model value
+     */
+    protected abstract String formatModelValue();
+
+    @Override
+    public boolean canCreateViewOffMainThread() {
+        // the view is a plain EditText
+        return true;
+    }
+
+    @Override
+    protected View createFieldView() {
+        final EditText editText = new EditText(getContext());
+        bindEditText(editText);
+        return editText;
+    }
+
+    @Override
+    protected boolean canRebindView() {
+        return true;
+    }
+
+    @Override
+    protected void onBindFieldView(View fieldView) {
+        bindEditText((EditText) fieldView);
+    }
+
+    /**
+     * Sets up an EditText, just created or taken over from another field, to show and edit this field.
+     */
+    private void bindEditText(EditText editText) {
+        editText.setId(editTextId);
+
+        editText.setSingleLine(true);
+        editText.setHint(placeholder);
+        editText.setInputType(inputType);
+
+        if (!typeResolved) {
+            Class modelClass = getModel().getBackingModelClass(getName());
+            primitiveType = modelClass != null && modelClass.isPrimitive();
+            typeResolved = true;
+        }
+
+        showValue(editText);
+        editText.addTextChangedListener(textWatcher);
+    }
+
+    @Override
+    protected void onViewReleased() {
+        EditText editText = getEditText();
+        editText.removeTextChangedListener(textWatcher);
+        unsetInput = hasInputError() ? editText.getText().toString() : null;
+        super.onViewReleased();
+    }
+
+    /**
+     * Shows the value of this field in an EditText that was just created or taken over from another field: the input
+     * that could not be set on the model if the model has not changed since, otherwise the model value. Unlike a
+     * refresh, this does not mark the field as needing validation, as changes to the model already do.
+     */
+    private void showValue(EditText editText) {
+        if (unsetInput != null && hasInputError()
+                && (primitiveType ? formatModelValue().equals(staleModelText) : !hasModelValue())) {
+            editText.setText(unsetInput);
+        } else {
+            setInputError(null);
+            editText.setText(hasModelValue() ? formatModelValue() : "");
+        }
+        unsetInput = null;
+    }
+
+    /**
+     * Indicates whether the model field has a value. A primitive field always has one.
+     */
+    private boolean hasModelValue() {
+        return primitiveType || getModel().getValue(getName()) != null;
+    }
+
+    private void refresh(EditText editText) {
+        Editable text = editText.getText();
+        if (!hasModelValue()) {
+            if (parse(text)) {
+                editText.setText("");
+                setNeedsValidation();
+            }
+            return;
+        }
+
+        if (hasInputError() && formatModelValue().equals(staleModelText)) {
+            // keep showing the input that could not be set on the model, with its error, until the model changes
+            return;
+        }
+
+        if (!parse(text) || !isParsedValueInModel()) {
+            setInputError(null);
+            editText.setText(formatModelValue());
+            setNeedsValidation();
+        }
+    }
+
+    @Override
+    public void refresh() {
+        refresh(getEditText());
+    }
+}
@@ -1,8 +1,9 @@
 package com.azavea.androidvalidatedforms.controllers;
 
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 import android.app.AlertDialog;
 import android.app.Dialog;
@@ -17,17 +18,21 @@ import android.text.InputType;
 import android.text.TextWatcher;
 import android.view.LayoutInflater;
 import android.view.View;
+import android.view.ViewGroup;
 import android.view.View.OnClickListener;
 import android.view.View.OnFocusChangeListener;
 import android.widget.AdapterView;
 import android.widget.AdapterView.OnItemClickListener;
-import android.widget.ArrayAdapter;
+import android.widget.BaseAdapter;
 import android.widget.EditText;
 import android.widget.ListView;
+import android.widget.TextView;
 
 import com.azavea.androidvalidatedforms.FormController;
 import com.azavea.androidvalidatedforms.R;
 import com.azavea.androidvalidatedforms.utils.MessageUtil;
+import com.azavea.androidvalidatedforms.utils.NGramSearchIndex;
+import com.azavea.androidvalidatedforms.utils.PrefixSearchIndex;
 
 /**
  * Represents a field that allows a user to select from a list of items, with the ability to search for specific items.
@@ -39,6 +44,11 @@ import com.azavea.androidvalidatedforms.utils.MessageUtil;
  * For the field value, the associated FormModel must return a String representing the currently selected item.
  * If the value does not exist in the list, 'Other (x)' will be displayed, where 'x' is the field value. No selection
  * can be represented by returning {@code null} for the value of the field.
+ * <p/>
+ * By default, searching matches the items starting with the search text, ignoring case. The items are indexed in the
+ * background once loaded, so that finding the matches takes time proportional to the log of the number of items; they
+ * are listed alphabetically, straight from the index, with equal items in the order of the list. Use {@link #setMatchMode(MatchMode)} to also match text within the items, or
+ * misspelled text. Searches run on a worker thread, and each change to the search text cancels the search before it.
  */
 public class SearchableSelectionController extends LabeledFieldController {
     private final int editTextId = FormController.generateViewId();
@@ -48,7 +58,21 @@ public class SearchableSelectionController extends LabeledFieldController {
     private Dialog selectionDialog = null;
     private final SelectionDataSource dataSource;
     private List<String> items = null;
+    private PrefixSearchIndex searchIndex = null;
     private final LoadItemsTask loadItemsTask;
+    private MatchMode matchMode = MatchMode.PREFIX;
+    private int maxResults = DEFAULT_MAX_RESULTS;
+    private NGramSearchIndex ngramIndex = null;
+    private BuildNGramIndexTask buildNGramIndexTask = null;
+    private static final int DEFAULT_MAX_RESULTS = 100;
+
+    // searches run one at a time, off the UI thread; a new search cancels the one before it
+    private static final Executor FILTER_EXECUTOR = Executors.newSingleThreadExecutor();
+    private FilterTask filterTask = null;
+    private int filterGeneration = 0;
+    // only used on the worker thread
+    private NGramSearchIndex.Searcher workerSearcher = null;
+    private NGramSearchIndex workerSearcherIndex = null;
     private ProgressDialog loadingIndicator;
     private boolean otherSelectionIsShowing = false;
 
@@ -65,6 +89,28 @@ public class SearchableSelectionController extends LabeledFieldController {
         List<String> getItems();
     }
 
+    /**
+     * How the search text is matched against the items.
+     */
+    public enum MatchMode {
+        /**
+         * Match the items starting with the search text, listed alphabetically.
+         */
+        PREFIX,
+
+        /**
+         * Match the items containing the search text, ranking items starting with it, then items with a word starting
+         * with it, first.
+         */
+        SUBSTRING,
+
+        /**
+         * Match the items containing the search text, or most of it, so that a misspelled item can still be found.
+         * Items containing the search text rank first.
+         */
+        FUZZY
+    }
+
     /**
      * Creates a new instance of a selection field.
      *
@@ -92,6 +138,44 @@ public class SearchableSelectionController extends LabeledFieldController {
         return isFreeFormTextAllowed;
     }
 
+    /**
+     * Sets how the search text is matched against the items. Modes other than {@link MatchMode#PREFIX} build an
+     * additional index in the background once the items are loaded; until it is ready, searches match by prefix.
+     * Default is {@link MatchMode#PREFIX}.
+     *
+     * @param matchMode how to match the search text
+     */
+    public void setMatchMode(MatchMode matchMode) {
+        this.matchMode = matchMode;
+        buildNGramIndexIfNeeded();
+    }
+
+    /**
+     * Returns how the search text is matched against the items.
+     *
+     * @return how the search text is matched
+     */
+    public MatchMode getMatchMode() {
+        return matchMode;
+    }
+
+    /**
+     * Sets the largest number of best matches to show for {@link MatchMode#SUBSTRING} and {@link MatchMode#FUZZY}
+     * searches. Default is 100.
+     *
+     * @param maxResults    the largest number of matches to show
+     */
+    public void setMaxResults(int maxResults) {
+        this.maxResults = maxResults;
+    }
+
+    private void buildNGramIndexIfNeeded() {
+        if (matchMode != MatchMode.PREFIX && items != null && ngramIndex == null && buildNGramIndexTask == null) {
+            buildNGramIndexTask = new BuildNGramIndexTask(items);
+            buildNGramIndexTask.execute(new Void[0]);
+        }
+    }
+
     protected View createFieldView() {
         final EditText editText = new EditText(getContext());
         editText.setId(editTextId);
@@ -150,8 +234,7 @@ public class SearchableSelectionController extends LabeledFieldController {
             builder.setTitle("Select " + getLabel());
 
             View searchableList = LayoutInflater.from(context).inflate(R.layout.searchable_listview, null);
-            final List<String> filteredItems = new ArrayList<String>(items);
-            final ArrayAdapter<String> itemsAdapter = new ArrayAdapter<String>(context, android.R.layout.simple_list_item_1, android.R.id.text1, filteredItems);
+            final SearchResultsAdapter itemsAdapter = new SearchResultsAdapter(context, items);
 
             final EditText searchField = (EditText)searchableList.findViewById(R.id.search_field);
             searchField.addTextChangedListener(new TextWatcher() {
@@ -166,28 +249,7 @@ public class SearchableSelectionController extends LabeledFieldController {
 
                 @Override
                 public void afterTextChanged(Editable s) {
-                    String text = s.toString().trim();
-                    String textLowerCase = text.toLowerCase(Locale.getDefault());
-                    filteredItems.clear();
-                    if (s.length() > 0) {
-                        for (String item : items) {
-                            if (item.toLowerCase(Locale.getDefault()).startsWith(textLowerCase)) {
-                                filteredItems.add(item);
-                            }
-                        }
-                    } else {
-                        filteredItems.addAll(items);
-                    }
-
-                    otherSelectionIsShowing = false;
-                    if (isFreeFormTextAllowed
-                            && !text.isEmpty()
-                            && (filteredItems.size() != 1 || !filteredItems.get(0).equalsIgnoreCase(textLowerCase))) {
-                        filteredItems.add(0, "Other (" + text + ")");
-                        otherSelectionIsShowing = true;
-                    }
-
-                    itemsAdapter.notifyDataSetChanged();
+                    filter(s.toString().trim(), itemsAdapter);
                 }
             });
 
@@ -199,11 +261,11 @@ public class SearchableSelectionController extends LabeledFieldController {
                 public void onItemClick(AdapterView<?> parent, View view, int position, long id) {
                     String selection;
                     if (otherSelectionIsShowing && position == 0) {
-                        selection = searchField.getText().toString();
+                        selection = itemsAdapter.getResults().text;
                     } else {
                         selection = itemsAdapter.getItem(position);
                     }
-                    getModel().setValue(getName(), selection);
+                    getModel().setValue(getName(), selection, SearchableSelectionController.this);
                     editText.setText(selection);
                     setNeedsValidation();
                     selectionDialog.dismiss();
@@ -217,6 +279,7 @@ public class SearchableSelectionController extends LabeledFieldController {
                 @Override
                 public void onDismiss(DialogInterface dialog) {
                     selectionDialog = null;
+                    cancelFilter();
                 }
             });
 
@@ -224,6 +287,47 @@ public class SearchableSelectionController extends LabeledFieldController {
         }
     }
 
+    /**
+     * Searches the items for the search text in the background, replacing any search still running, and shows the
+     * results once found.
+     */
+    private void filter(String text, SearchResultsAdapter adapter) {
+        cancelFilter();
+        if (text.isEmpty()) {
+            // show all items, in their original order; nothing to search
+            applyResults(FilterResults.all(items), adapter);
+            return;
+        }
+
+        NGramSearchIndex index = matchMode == MatchMode.PREFIX ? null : ngramIndex;
+        filterTask = new FilterTask(filterGeneration, text, index, adapter);
+        filterTask.executeOnExecutor(FILTER_EXECUTOR, new Void[0]);
+    }
+
+    /**
+     * Cancels the search running, if any, so that its results are never shown.
+     */
+    private void cancelFilter() {
+        // results carry the generation they were searched for, so a search that cannot be stopped in time is ignored
+        filterGeneration++;
+        if (filterTask != null) {
+            filterTask.cancel(false);
+            filterTask = null;
+        }
+    }
+
+    private void applyResults(FilterResults results, SearchResultsAdapter adapter) {
+        otherSelectionIsShowing = false;
+        if (isFreeFormTextAllowed
+                && !results.text.isEmpty()
+                && (results.getMatchCount() != 1 || !results.getMatch(0).equalsIgnoreCase(results.text))) {
+            otherSelectionIsShowing = true;
+        }
+        results.otherItem = otherSelectionIsShowing ? "Other (" + results.text + ")" : null;
+
+        adapter.setResults(results);
+    }
+
     private EditText getEditText() {
         return (EditText)getView().findViewById(editTextId);
     }
@@ -239,13 +343,227 @@ public class SearchableSelectionController extends LabeledFieldController {
         refresh(getEditText());
     }
 
+    /**
+     * The items matching a search: all items, a list of the positions of the matches, or a range of the sorted
+     * positions of a prefix index. Neither the items nor the range are copied.
+     */
+    private static class FilterResults {
+        static final int SHOW_ALL = 0;
+        static final int SHOW_RESULTS = 1;
+        static final int SHOW_PREFIX_RANGE = 2;
+
+        final List<String> items;
+        final String text;
+        int showing = SHOW_ALL;
+        int[] results;
+        int resultCount;
+        // for SHOW_PREFIX_RANGE, the index and the first sorted position of the matches
+        PrefixSearchIndex prefixIndex;
+        int rangeStart;
+        // the free-form entry shown first, or null
+        String otherItem;
+
+        FilterResults(List<String> items, String text) {
+            this.items = items;
+            this.text = text;
+        }
+
+        static FilterResults all(List<String> items) {
+            return new FilterResults(items, "");
+        }
+
+        int getMatchCount() {
+            return showing == SHOW_ALL ? items.size() : resultCount;
+        }
+
+        /**
+         * Returns the position in the item list of a match.
+         */
+        int getMatchIndex(int index) {
+            switch (showing) {
+                case SHOW_RESULTS:
+                    return results[index];
+                case SHOW_PREFIX_RANGE:
+                    return prefixIndex.getItemIndex(rangeStart + index);
+                default:
+                    return index;
+            }
+        }
+
+        String getMatch(int index) {
+            return items.get(getMatchIndex(index));
+        }
+
+        /**
+         * Indicates whether these results show the same rows as other results.
+         */
+        boolean showsSameRows(FilterResults other) {
+            if (otherItem == null ? other.otherItem != null : !otherItem.equals(other.otherItem)) {
+                return false;
+            }
+            int count = getMatchCount();
+            if (count != other.getMatchCount()) {
+                return false;
+            }
+            if (showing == SHOW_ALL && other.showing == SHOW_ALL) {
+                return true;
+            }
+            if (count > MAX_COMPARED_ROWS) {
+                // not worth comparing; assume the rows changed
+                return false;
+            }
+            for (int i = 0; i < count; i++) {
+                if (getMatchIndex(i) != other.getMatchIndex(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    // largest number of rows compared to decide whether new results change the list
+    private static final int MAX_COMPARED_ROWS = 1000;
+
+    /**
+     * Shows search results. Rows are identified by the position of their item in the item list, so the list keeps its
+     * state across updates.
+     */
+    private static class SearchResultsAdapter extends BaseAdapter {
+        private final LayoutInflater inflater;
+        private FilterResults results;
+
+        SearchResultsAdapter(Context context, List<String> items) {
+            inflater = LayoutInflater.from(context);
+            results = FilterResults.all(items);
+        }
+
+        FilterResults getResults() {
+            return results;
+        }
+
+        /**
+         * Shows new results, only updating the list if they show different rows.
+         */
+        void setResults(FilterResults newResults) {
+            boolean changed = !results.showsSameRows(newResults);
+            results = newResults;
+            if (changed) {
+                notifyDataSetChanged();
+            }
+        }
+
+        @Override
+        public int getCount() {
+            return results.getMatchCount() + (results.otherItem != null ? 1 : 0);
+        }
+
+        @Override
+        public String getItem(int position) {
+            if (results.otherItem != null) {
+                if (position == 0) {
+                    return results.otherItem;
+                }
+                position--;
+            }
+            return results.getMatch(position);
+        }
+
+        @Override
+        public long getItemId(int position) {
+            if (results.otherItem != null) {
+                if (position == 0) {
+                    return -1;
+                }
+                position--;
+            }
+            return results.getMatchIndex(position);
+        }
+
+        @Override
+        public boolean hasStableIds() {
+            return true;
+        }
+
+        @Override
+        public View getView(int position, View convertView, ViewGroup parent) {
+            View row = convertView;
+            if (row == null) {
+                row = inflater.inflate(android.R.layout.simple_list_item_1, parent, false);
+            }
+            ((TextView) row.findViewById(android.R.id.text1)).setText(getItem(position));
+            return row;
+        }
+    }
+
+    /**
+     * Searches the items in the background. Tasks run one at a time on a shared worker thread, which also owns the
+     * n-gram searcher.
+     */
+    private class FilterTask extends AsyncTask<Void, Void, FilterResults> {
+        private final int generation;
+        private final String text;
+        private final List<String> itemsToSearch = items;
+        private final PrefixSearchIndex prefixIndex = searchIndex;
+        private final NGramSearchIndex index;
+        private final int resultLimit = maxResults;
+        private final MatchMode mode = matchMode;
+        private final SearchResultsAdapter adapter;
+
+        FilterTask(int generation, String text, NGramSearchIndex index, SearchResultsAdapter adapter) {
+            this.generation = generation;
+            this.text = text;
+            this.index = index;
+            this.adapter = adapter;
+        }
+
+        @Override
+        protected FilterResults doInBackground(Void... params) {
+            FilterResults results = new FilterResults(itemsToSearch, text);
+            if (index == null) {
+                String prefix = prefixIndex.normalize(text);
+                int start = prefixIndex.start(prefix);
+                // list the matches straight from the index, in the order they are sorted in
+                results.showing = FilterResults.SHOW_PREFIX_RANGE;
+                results.prefixIndex = prefixIndex;
+                results.rangeStart = start;
+                results.resultCount = prefixIndex.end(prefix, start) - start;
+                return results;
+            }
+
+            if (workerSearcher == null || workerSearcherIndex != index) {
+                workerSearcher = index.newSearcher();
+                workerSearcherIndex = index;
+            }
+            String query = index.normalize(text);
+            results.showing = FilterResults.SHOW_RESULTS;
+            results.results = new int[resultLimit];
+            results.resultCount = mode == MatchMode.FUZZY
+                    ? workerSearcher.searchFuzzy(query, resultLimit, results.results)
+                    : workerSearcher.searchSubstring(query, resultLimit, results.results);
+            return results;
+        }
+
+        @Override
+        protected void onPostExecute(FilterResults results) {
+            if (generation != filterGeneration) {
+                return; // superseded by a newer search
+            }
+            filterTask = null;
+            applyResults(results, adapter);
+        }
+    }
+
     private class LoadItemsTask extends AsyncTask<Void, Void, List<String>> {
 
         Runnable doneRunnable;
+        PrefixSearchIndex loadedIndex;
 
         @Override
         protected List<String> doInBackground(Void... params) {
-            return dataSource.getItems();
+            List<String> results = dataSource.getItems();
+            // index the items here, rather than on the UI thread when the user searches
+            loadedIndex = new PrefixSearchIndex(results, Locale.getDefault());
+            return results;
         }
 
         @Override
@@ -256,6 +574,8 @@ public class SearchableSelectionController extends LabeledFieldController {
             }
 
             items = results;
+            searchIndex = loadedIndex;
+            buildNGramIndexIfNeeded();
 
             if (doneRunnable != null) {
                 doneRunnable.run();
@@ -266,4 +586,24 @@ public class SearchableSelectionController extends LabeledFieldController {
             doneRunnable = runnable;
         }
     }
+
+    private class BuildNGramIndexTask extends AsyncTask<Void, Void, NGramSearchIndex> {
+
+        private final List<String> itemsToIndex;
+
+        BuildNGramIndexTask(List<String> itemsToIndex) {
+            this.itemsToIndex = itemsToIndex;
+        }
+
+        @Override
+        protected NGramSearchIndex doInBackground(Void... params) {
+            return new NGramSearchIndex(itemsToIndex, Locale.getDefault());
+        }
+
+        @Override
+        protected void onPostExecute(NGramSearchIndex index) {
+            ngramIndex = index;
+            buildNGramIndexTask = null;
+        }
+    }
 }
@@ -11,6 +11,11 @@ import android.widget.Spinner;
 
 import com.azavea.androidvalidatedforms.FormController;
 import com.azavea.androidvalidatedforms.R;
+import com.azavea.androidvalidatedforms.converters.ValueConverter;
+import com.azavea.androidvalidatedforms.converters.ValueConverters;
+import com.azavea.androidvalidatedforms.utils.ValueIndex;
+import com.azavea.androidvalidatedforms.validations.InvalidInputError;
+import com.azavea.androidvalidatedforms.validations.RequiredField;
 
 /**
  * Represents a field that allows a user to select from a list of items.
@@ -18,6 +23,10 @@ import com.azavea.androidvalidatedforms.R;
  * For the field value, the associated FormModel must return either a String or a 0-based index, representing the
  * currently selected item. Which representation to use is specified by the constructor. In either representation, no
  * selection can be represented by returning {@code null} for the value of the field.
+ * <p/>
+ * Values given as strings for a model field of another type, such as an enum or a number, are converted with the
+ * field's {@link ValueConverter}. A selection that does not convert, or the prompt on a primitive model field, which
+ * cannot hold no selection, leaves the model unchanged and is reported as a validation error.
  */
 public class SelectionController extends LabeledFieldController {
 
@@ -26,6 +35,10 @@ public class SelectionController extends LabeledFieldController {
     private final String prompt;
     private final List<String> items;
     private final List<?> values;
+    private ValueIndex valueIndex;
+    private ValueConverter<Object> converter;
+    private boolean primitiveType;
+    private boolean converterResolved = false;
 
     /**
      * Constructs a selection field
@@ -73,8 +86,27 @@ public class SelectionController extends LabeledFieldController {
         return (Spinner)getView().findViewById(spinnerId);
     }
 
+    /**
+     * Looks up the converter for the backing model field, if the values must be converted to its type.
+     */
+    @SuppressWarnings("unchecked")
+    private void resolveConverter() {
+        Class modelClass = getModel().getBackingModelClass(getName());
+        primitiveType = modelClass != null && modelClass.isPrimitive();
+
+        if (values != null && !values.isEmpty() && values.get(0) instanceof CharSequence
+                && modelClass != null && modelClass != Object.class && !CharSequence.class.isAssignableFrom(modelClass)) {
+            converter = ValueConverters.forType(modelClass);
+        }
+        converterResolved = true;
+    }
+
     @Override
     protected View createFieldView() {
+        if (!converterResolved) {
+            resolveConverter();
+        }
+
         Spinner spinnerView = new Spinner(getContext());
         spinnerView.setId(spinnerId);
         spinnerView.setPrompt(prompt);
@@ -103,7 +135,23 @@ public class SelectionController extends LabeledFieldController {
                     value = null;
                 }
 
-                getModel().setValue(getName(), value);
+                if (converter != null && value != null) {
+                    Object converted = converter.fromText((CharSequence) value);
+                    if (converted == null) {
+                        // keep the model value, and report the selection it cannot hold
+                        setInputError(new InvalidInputError(getName(), getLabel()));
+                        return;
+                    }
+                    value = converted;
+                }
+                if (value == null && primitiveType) {
+                    // a primitive field cannot be cleared, so selecting the prompt leaves it without a valid value
+                    setInputError(new RequiredField(getName(), getLabel()));
+                    return;
+                }
+
+                setInputError(null);
+                getModel().setValue(getName(), value, SelectionController.this);
             }
 
             @Override
@@ -121,16 +169,21 @@ public class SelectionController extends LabeledFieldController {
         int selectionIndex = 0;
 
         if (values != null) {
-            for (int i=0; i< values.size(); i++) {
-                if (values.get(i).equals(value)) {
-                    selectionIndex = i+1;
-                    break;
-                }
+            if (valueIndex == null) {
+                // shared with the other fields using the same values
+                valueIndex = ValueIndex.of(values);
             }
+            // look up converted values by their text
+            Object key = converter != null && value != null ? converter.toText(value) : value;
+            // position 0 is the prompt, so a value not found selects it
+            selectionIndex = valueIndex.indexOf(key) + 1;
         } else if (value instanceof Integer) {
             selectionIndex = (Integer)value;
         }
 
+        // a primitive value that is not one of the values shows the prompt, which it cannot stand for
+        setInputError(primitiveType && values != null && selectionIndex == 0
+                ? new RequiredField(getName(), getLabel()) : null);
         spinner.setSelection(selectionIndex);
         setNeedsValidation();
     }
@@ -5,15 +5,19 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.widget.TextView;
 import com.azavea.androidvalidatedforms.R;
+import com.azavea.androidvalidatedforms.converters.ValueConverter;
+import com.azavea.androidvalidatedforms.converters.ValueConverters;
 
 /**
  * Represents a field that displays a value.
  * <p/>
- * For the field value, the associated FormModel can return a string or any object. The value's {@code toString} method
- * will be used to display the value.
+ * For the field value, the associated FormModel can return a string or any object. The value is displayed with the
+ * {@link ValueConverter} of the field's type, or with its {@code toString} method if the type has none.
  */
 public class ValueController extends LabeledFieldController {
 
+    private ValueConverter<Object> converter;
+
     /**
      * Constructs a new instance of a value field.
      *
@@ -25,22 +29,61 @@ public class ValueController extends LabeledFieldController {
         super(ctx, name, labelText, false);
     }
 
+    @Override
+    public boolean canCreateViewOffMainThread() {
+        // the view is a plain TextView
+        return true;
+    }
+
     @Override
     protected View createFieldView() {
         LayoutInflater layoutInflater = LayoutInflater.from(getContext());
         final TextView textView = (TextView)layoutInflater.inflate(R.layout.value_field, null);
-        refresh(textView);
+        showValue(textView);
 
         return textView;
     }
 
+    @Override
+    protected boolean canRebindView() {
+        return true;
+    }
+
+    @Override
+    protected void onBindFieldView(View fieldView) {
+        showValue((TextView) fieldView);
+    }
+
+    /**
+     * Shows the value in a view that was just created or taken over from another field. Unlike a refresh, this does
+     * not mark the field as needing validation, as changes to the model already do.
+     */
+    private void showValue(TextView textView) {
+        if (converter == null) {
+            resolveConverter();
+        }
+        Object value = getModel().getValue(getName());
+        textView.setText(value != null ? converter.toText(value) : "");
+    }
+
+    @SuppressWarnings("unchecked")
+    private void resolveConverter() {
+        converter = ValueConverters.forType(getModel().getBackingModelClass(getName()));
+        if (converter == null) {
+            // displays any value with toString
+            converter = (ValueConverter) ValueConverters.forType(String.class);
+        }
+    }
+
     private TextView getTextView() {
         return (TextView)getView().findViewById(R.id.value_text);
     }
 
     private void refresh(TextView textView) {
         Object value = getModel().getValue(getName());
-        textView.setText(value != null ? value.toString() : "");
+        if (!converter.matches(textView.getText(), value)) {
+            textView.setText(value != null ? converter.toText(value) : "");
+        }
         setNeedsValidation();
     }
 
@@ -0,0 +1,23 @@
+package com.azavea.androidvalidatedforms.converters;
+
+import com.azavea.androidvalidatedforms.utils.NumberParser;
+
+/**
+ * A {@link ValueConverter} for a number type that can also parse text without creating a {@code String} or boxing the
+ * result, so that primitive model fields can be set through the typed setters of the form model, such as
+ * {@link com.azavea.androidvalidatedforms.FormModelEnclosure.FormModel#setIntValue}.
+ *
+ * @param <T> the boxed type of the model field
+ */
+public interface NumberConverter<T extends Number> extends ValueConverter<T> {
+
+    /**
+     * Parses text as a number of this type. Whole numbers are then available from {@link NumberParser#getLong()},
+     * and decimal numbers from {@link NumberParser#getDouble()} or {@link NumberParser#getFloat()}.
+     *
+     * @param text      the text to parse, such as the content of a text field
+     * @param parser    the parser to parse with, which holds the parsed number
+     * @return          true if the text represents a number of this type, otherwise false
+     */
+    boolean parse(CharSequence text, NumberParser parser);
+}
@@ -0,0 +1,37 @@
+package com.azavea.androidvalidatedforms.converters;
+
+/**
+ * Converts between the values of a model field of a given type and the text shown for them in the form.
+ * Converters are looked up by type through {@link ValueConverters}, and may be used from several threads at once.
+ *
+ * @param <T> the type of the model field
+ */
+public interface ValueConverter<T> {
+
+    /**
+     * Returns the value some text represents.
+     *
+     * @param text  the text to convert, such as the content of a text field
+     * @return      the value of the text, or null if it does not represent a value of this type. For example, a lone
+     *              minus sign while the user is typing a negative number converts to null.
+     */
+    T fromText(CharSequence text);
+
+    /**
+     * Returns the text to display for a value.
+     *
+     * @param value a non-null value of this type
+     * @return      the text representing the value
+     */
+    String toText(T value);
+
+    /**
+     * Indicates whether some text represents a value. Used to skip updating the model or the view when they already
+     * agree, so implementations should avoid allocating where they can.
+     *
+     * @param text  the text to check
+     * @param value the value to compare to; may be null, or of another type
+     * @return      true if the text converts to a value equal to {@code value}, otherwise false
+     */
+    boolean matches(CharSequence text, Object value);
+}
@@ -0,0 +1,353 @@
+package com.azavea.androidvalidatedforms.converters;
+
+import com.azavea.androidvalidatedforms.utils.NumberParser;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the {@link ValueConverter} to use for each type of model field. Converters are provided for strings,
+ * {@code Integer}, {@code Long}, {@code Short}, {@code Double}, {@code Float}, {@code Boolean}, {@code BigDecimal},
+ * their primitive types, and any enum. Other types can be added with {@link #register}. The converters of number types
+ * are {@link NumberConverter}s, which also parse text without boxing.
+ * <p/>
+ * Controllers look up the converter of their field once, when their view is created.
+ */
+public final class ValueConverters {
+
+    private static final ConcurrentHashMap<Class<?>, ValueConverter<?>> converters = new ConcurrentHashMap<>();
+
+    // NumberParser keeps state, so give each thread its own
+    private static final ThreadLocal<NumberParser> parsers = new ThreadLocal<NumberParser>() {
+        @Override
+        protected NumberParser initialValue() {
+            return new NumberParser();
+        }
+    };
+
+    static {
+        // strings are stored as such, whether the field is declared as a String or a CharSequence
+        StringConverter stringConverter = new StringConverter();
+        converters.put(String.class, stringConverter);
+        converters.put(CharSequence.class, stringConverter);
+        register(Integer.class, new IntegerConverter());
+        register(int.class, new IntegerConverter());
+        register(Long.class, new LongConverter());
+        register(long.class, new LongConverter());
+        register(Short.class, new ShortConverter());
+        register(short.class, new ShortConverter());
+        register(Double.class, new DoubleConverter());
+        register(double.class, new DoubleConverter());
+        register(Float.class, new FloatConverter());
+        register(float.class, new FloatConverter());
+        register(Boolean.class, new BooleanConverter());
+        register(boolean.class, new BooleanConverter());
+        register(BigDecimal.class, new BigDecimalConverter());
+    }
+
+    private ValueConverters() {
+    }
+
+    /**
+     * Sets the converter to use for model fields of a type, replacing any converter registered for it before.
+     *
+     * @param type      the type of the model fields
+     * @param converter the converter to use for them
+     * @param <T>       the type of the model fields
+     */
+    public static <T> void register(Class<T> type, ValueConverter<T> converter) {
+        converters.put(type, converter);
+    }
+
+    /**
+     * Returns the converter for model fields of a type. Types without a converter of their own use the converter of
+     * their closest superclass that has one.
+     *
+     * @param type  the type of the model field
+     * @return      the converter for the type, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ValueConverter<T> forType(Class<T> type) {
+        if (type == null) {
+            return null;
+        }
+
+        ValueConverter<?> converter = converters.get(type);
+        if (converter == null) {
+            converter = findConverter(type);
+            if (converter != null) {
+                // cache the result, so the search happens once per type
+                converters.putIfAbsent(type, converter);
+            }
+        }
+        return (ValueConverter<T>) converter;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ValueConverter<?> findConverter(Class<?> type) {
+        if (type.isEnum()) {
+            return new EnumConverter((Class<? extends Enum>) type);
+        }
+        if (CharSequence.class.isAssignableFrom(type)) {
+            return converters.get(CharSequence.class);
+        }
+        for (Class<?> superclass = type.getSuperclass(); superclass != null; superclass = superclass.getSuperclass()) {
+            ValueConverter<?> converter = converters.get(superclass);
+            if (converter != null) {
+                return converter;
+            }
+        }
+        return null;
+    }
+
+    // accepts any value, so it can also display fields of types without a converter
+    private static class StringConverter implements ValueConverter<Object> {
+        @Override
+        public Object fromText(CharSequence text) {
+            return text.toString();
+        }
+
+        @Override
+        public String toText(Object value) {
+            return value.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence text, Object value) {
+            if (value == null) {
+                return text.length() == 0;
+            }
+            if (value instanceof String) {
+                return ((String) value).contentEquals(text);
+            }
+            return value instanceof CharSequence && value.toString().contentEquals(text);
+        }
+    }
+
+    private static class IntegerConverter implements NumberConverter<Integer> {
+        @Override
+        public boolean parse(CharSequence text, NumberParser parser) {
+            return parser.parseLong(text, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public Integer fromText(CharSequence text) {
+            NumberParser parser = parsers.get();
+            return parse(text, parser) ? (int) parser.getLong() : null;
+        }
+
+        @Override
+        public String toText(Integer value) {
+            return value.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence text, Object value) {
+            NumberParser parser = parsers.get();
+            if (!parse(text, parser)) {
+                return value == null;
+            }
+            return value instanceof Integer && (Integer) value == (int) parser.getLong();
+        }
+    }
+
+    private static class LongConverter implements NumberConverter<Long> {
+        @Override
+        public boolean parse(CharSequence text, NumberParser parser) {
+            return parser.parseLong(text, Long.MIN_VALUE, Long.MAX_VALUE);
+        }
+
+        @Override
+        public Long fromText(CharSequence text) {
+            NumberParser parser = parsers.get();
+            return parse(text, parser) ? parser.getLong() : null;
+        }
+
+        @Override
+        public String toText(Long value) {
+            return value.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence text, Object value) {
+            NumberParser parser = parsers.get();
+            if (!parse(text, parser)) {
+                return value == null;
+            }
+            return value instanceof Long && (Long) value == parser.getLong();
+        }
+    }
+
+    private static class ShortConverter implements NumberConverter<Short> {
+        @Override
+        public boolean parse(CharSequence text, NumberParser parser) {
+            return parser.parseLong(text, Short.MIN_VALUE, Short.MAX_VALUE);
+        }
+
+        @Override
+        public Short fromText(CharSequence text) {
+            NumberParser parser = parsers.get();
+            return parse(text, parser) ? (short) parser.getLong() : null;
+        }
+
+        @Override
+        public String toText(Short value) {
+            return value.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence text, Object value) {
+            NumberParser parser = parsers.get();
+            if (!parse(text, parser)) {
+                return value == null;
+            }
+            return value instanceof Short && (Short) value == (short) parser.getLong();
+        }
+    }
+
+    private static class DoubleConverter implements NumberConverter<Double> {
+        @Override
+        public boolean parse(CharSequence text, NumberParser parser) {
+            return parser.parseDouble(text);
+        }
+
+        @Override
+        public Double fromText(CharSequence text) {
+            NumberParser parser = parsers.get();
+            return parse(text, parser) ? parser.getDouble() : null;
+        }
+
+        @Override
+        public String toText(Double value) {
+            return value.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence text, Object value) {
+            NumberParser parser = parsers.get();
+            if (!parse(text, parser)) {
+                return value == null;
+            }
+            // same comparison as Double.equals
+            return value instanceof Double
+                    && Double.doubleToLongBits((Double) value) == Double.doubleToLongBits(parser.getDouble());
+        }
+    }
+
+    private static class FloatConverter implements NumberConverter<Float> {
+        @Override
+        public boolean parse(CharSequence text, NumberParser parser) {
+            return parser.parseFloat(text);
+        }
+
+        @Override
+        public Float fromText(CharSequence text) {
+            NumberParser parser = parsers.get();
+            return parse(text, parser) ? parser.getFloat() : null;
+        }
+
+        @Override
+        public String toText(Float value) {
+            return value.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence text, Object value) {
+            NumberParser parser = parsers.get();
+            if (!parse(text, parser)) {
+                return value == null;
+            }
+            // same comparison as Float.equals
+            return value instanceof Float
+                    && Float.floatToIntBits((Float) value) == Float.floatToIntBits(parser.getFloat());
+        }
+    }
+
+    private static class BooleanConverter implements ValueConverter<Boolean> {
+        @Override
+        public Boolean fromText(CharSequence text) {
+            // unlike Boolean.valueOf, any text but true or false is not a boolean
+            String value = text.toString();
+            if (value.equalsIgnoreCase("true")) {
+                return Boolean.TRUE;
+            } else if (value.equalsIgnoreCase("false")) {
+                return Boolean.FALSE;
+            }
+            return null;
+        }
+
+        @Override
+        public String toText(Boolean value) {
+            return value.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence text, Object value) {
+            if (value == null) {
+                return text.length() == 0;
+            }
+            return value instanceof Boolean && value.toString().contentEquals(text);
+        }
+    }
+
+    private static class BigDecimalConverter implements ValueConverter<BigDecimal> {
+        @Override
+        public BigDecimal fromText(CharSequence text) {
+            if (text.length() == 0) {
+                return null;
+            }
+            try {
+                return new BigDecimal(text.toString());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public String toText(BigDecimal value) {
+            // avoid scientific notation, so the text can be edited
+            return value.toPlainString();
+        }
+
+        @Override
+        public boolean matches(CharSequence text, Object value) {
+            BigDecimal textValue = fromText(text);
+            return textValue == null ? value == null : textValue.equals(value);
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static class EnumConverter implements ValueConverter<Enum> {
+        private final Class<? extends Enum> type;
+
+        EnumConverter(Class<? extends Enum> type) {
+            this.type = type;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Enum fromText(CharSequence text) {
+            if (text.length() == 0) {
+                return null;
+            }
+            try {
+                return Enum.valueOf(type, text.toString());
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public String toText(Enum value) {
+            return value.name();
+        }
+
+        @Override
+        public boolean matches(CharSequence text, Object value) {
+            if (value == null) {
+                return text.length() == 0;
+            }
+            return type.isInstance(value) && ((Enum) value).name().contentEquals(text);
+        }
+    }
+}
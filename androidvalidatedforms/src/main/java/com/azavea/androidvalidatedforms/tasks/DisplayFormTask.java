@@ -4,11 +4,13 @@ import android.os.AsyncTask;
 import android.util.Log;
 
 import com.azavea.androidvalidatedforms.FormActivityBase;
+import com.azavea.androidvalidatedforms.FormController;
 
 import java.lang.ref.WeakReference;
 
 /**
- * Initialize form in background, displaying loader until it's ready.
+ * Initialize form in background, displaying loader until it's ready. Optionally creates the form's views in the
+ * background too; see {@link FormController#setPreInflateViews(boolean)}.
  *
  * Created by kathrynkillebrew on 12/29/15.
  */
@@ -35,6 +37,12 @@ public class DisplayFormTask extends AsyncTask<Void, Void, Void> {
         FormActivityBase form = activity.get();
         if (form != null) {
             form.initForm();
+
+            FormController controller = form.getFormController();
+            if (controller.isPreInflateViews()) {
+                // leave only attaching the views to be done on the main thread
+                controller.preInflateViews();
+            }
         }
         return null;
     }
@@ -43,12 +51,19 @@ public class DisplayFormTask extends AsyncTask<Void, Void, Void> {
     protected void onPostExecute(Void aVoid) {
         super.onPostExecute(aVoid);
 
-        FormActivityBase form = activity.get();
+        final FormActivityBase form = activity.get();
         if (form != null) {
             form.showProgress(false);
             form.displayForm();
-            Log.d("DisplayTask", "Form loaded");
-            form.formIsReady();
+
+            // views may be attached over several frames
+            form.getFormController().runWhenViewsAttached(new Runnable() {
+                @Override
+                public void run() {
+                    Log.d("DisplayTask", "Form loaded");
+                    form.formIsReady();
+                }
+            });
         }
     }
 }
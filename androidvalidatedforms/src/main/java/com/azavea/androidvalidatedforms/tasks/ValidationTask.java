@@ -38,6 +38,9 @@ public class ValidationTask extends AsyncTask<Void, Void, Boolean> {
                 return;
             }
 
+            // values not yet set on the model cannot be read from the background
+            activityBase.getModel().flushPendingValues();
+
             activityBase.showProgress(true);
             activityBase.getFormController().resetValidationErrors();
         }
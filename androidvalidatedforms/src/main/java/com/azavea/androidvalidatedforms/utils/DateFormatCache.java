@@ -0,0 +1,160 @@
+package com.azavea.androidvalidatedforms.utils;
+
+import com.github.msarhan.ummalqura.calendar.UmmalquraCalendar;
+import com.github.msarhan.ummalqura.calendar.UmmalquraDateFormatSymbols;
+
+import java.text.DateFormatSymbols;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shares date formats between fields, so that a form with many date fields builds one formatter, calendar and set of
+ * Hijri month names per pattern, locale and time zone, rather than one per field.
+ */
+public final class DateFormatCache {
+
+    private static final ConcurrentHashMap<Key, SharedDateFormat> formats = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Locale, DateFormatSymbols> hijriSymbols = new ConcurrentHashMap<>();
+
+    private DateFormatCache() {
+    }
+
+    /**
+     * Returns the shared format for a pattern.
+     *
+     * @param pattern   the date pattern, as defined by {@link SimpleDateFormat}
+     * @param locale    the locale of the format
+     * @param timeZone  the time zone to display dates in
+     * @param hijri     if true, display dates in the Umm al-Qura calendar
+     * @return          the format, created on first use
+     */
+    public static SharedDateFormat get(String pattern, Locale locale, TimeZone timeZone, boolean hijri) {
+        Key key = new Key(pattern, locale, timeZone.getID(), hijri);
+        SharedDateFormat format = formats.get(key);
+        if (format == null) {
+            SimpleDateFormat dateFormat = new SimpleDateFormat(pattern, locale);
+            dateFormat.setTimeZone(timeZone);
+            HijriDateFormat hijriFormat = null;
+            if (hijri) {
+                applyHijri(dateFormat, locale);
+                hijriFormat = HijriDateFormat.compile(pattern, locale);
+            }
+            format = new SharedDateFormat(dateFormat, hijriFormat);
+            SharedDateFormat existing = formats.putIfAbsent(key, format);
+            if (existing != null) {
+                format = existing;
+            }
+        }
+        return format;
+    }
+
+    /**
+     * Returns the date format symbols of a locale, with the month names of the Umm al-Qura calendar. The returned
+     * instance is shared, and must not be modified.
+     *
+     * @param locale    the locale of the symbols
+     * @return          the symbols, created on first use
+     */
+    public static DateFormatSymbols getHijriSymbols(Locale locale) {
+        DateFormatSymbols symbols = hijriSymbols.get(locale);
+        if (symbols == null) {
+            UmmalquraDateFormatSymbols ummalqura = new UmmalquraDateFormatSymbols();
+            symbols = new DateFormatSymbols(locale);
+            symbols.setMonths(ummalqura.getMonths());
+            symbols.setShortMonths(ummalqura.getShortMonths());
+            DateFormatSymbols existing = hijriSymbols.putIfAbsent(locale, symbols);
+            if (existing != null) {
+                symbols = existing;
+            }
+        }
+        return symbols;
+    }
+
+    /**
+     * Sets a format up to display dates in the Umm al-Qura calendar, keeping its time zone.
+     *
+     * @param format    the format to set up
+     * @param locale    the locale of the format
+     */
+    public static void applyHijri(SimpleDateFormat format, Locale locale) {
+        TimeZone timeZone = format.getTimeZone();
+        UmmalquraCalendar calendar = new UmmalquraCalendar(locale);
+        calendar.setTimeZone(timeZone);
+        format.setCalendar(calendar);
+        // explicitly set the date format symbols; otherwise months display as incorrect Gregorian.
+        // SimpleDateFormat copies the symbols, so the shared instance is left untouched.
+        format.setDateFormatSymbols(getHijriSymbols(locale));
+    }
+
+    /**
+     * A date format that may be used from any thread. Formatting a time does not allocate a {@code Date}. Hijri dates
+     * are formatted from {@link UmmalquraTable} when the pattern allows it.
+     */
+    public static final class SharedDateFormat {
+        private final SimpleDateFormat format;
+        private final Date date = new Date();
+        private final HijriDateFormat hijriFormat;
+        private final UmmalquraTable.HijriDate hijriDate = new UmmalquraTable.HijriDate();
+        private final StringBuilder text = new StringBuilder();
+
+        private SharedDateFormat(SimpleDateFormat format, HijriDateFormat hijriFormat) {
+            this.format = format;
+            this.hijriFormat = hijriFormat;
+        }
+
+        /**
+         * Formats a time.
+         *
+         * @param millis    the time, in milliseconds since the epoch
+         * @return          the formatted date
+         */
+        public synchronized String format(long millis) {
+            if (hijriFormat != null) {
+                text.setLength(0);
+                if (hijriFormat.format(millis, format.getTimeZone(), hijriDate, text)) {
+                    return text.toString();
+                }
+            }
+            date.setTime(millis);
+            return format.format(date);
+        }
+    }
+
+    private static final class Key {
+        private final String pattern;
+        private final Locale locale;
+        private final String timeZoneId;
+        private final boolean hijri;
+
+        Key(String pattern, Locale locale, String timeZoneId, boolean hijri) {
+            this.pattern = pattern;
+            this.locale = locale;
+            this.timeZoneId = timeZoneId;
+            this.hijri = hijri;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hijri == other.hijri && pattern.equals(other.pattern) && locale.equals(other.locale)
+                    && timeZoneId.equals(other.timeZoneId);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = pattern.hashCode();
+            result = 31 * result + locale.hashCode();
+            result = 31 * result + timeZoneId.hashCode();
+            return 31 * result + (hijri ? 1 : 0);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.azavea.androidvalidatedforms.utils;
+
+import java.text.DateFormatSymbols;
+import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Formats dates of the Umm al-Qura calendar with {@link UmmalquraTable}, producing the same text as a
+ * {@link java.text.SimpleDateFormat} set up by {@link DateFormatCache#applyHijri}.
+ * <p/>
+ * Only date patterns are handled: day ({@code d}), month ({@code M}), year ({@code y}), day of the week ({@code E})
+ * and quoted or literal text. {@link #compile} returns null for other patterns, and for locales that do not use
+ * ASCII digits, so that they can be formatted by {@code SimpleDateFormat} instead.
+ * <p/>
+ * Instances are immutable, and may be shared between threads.
+ */
+public final class HijriDateFormat {
+
+    private static final char LITERAL = 0;
+
+    // the pattern, split into fields and literal text
+    private final char[] fieldLetters;
+    private final int[] fieldCounts;
+    private final String[] literals;
+    private final String[] months;
+    private final String[] shortMonths;
+    private final String[] weekdays;
+    private final String[] shortWeekdays;
+
+    private HijriDateFormat(List<Character> letters, List<Integer> counts, List<String> literals, DateFormatSymbols symbols) {
+        int size = letters.size();
+        this.fieldLetters = new char[size];
+        this.fieldCounts = new int[size];
+        for (int i = 0; i < size; i++) {
+            fieldLetters[i] = letters.get(i);
+            fieldCounts[i] = counts.get(i);
+        }
+        this.literals = literals.toArray(new String[size]);
+        this.months = symbols.getMonths();
+        this.shortMonths = symbols.getShortMonths();
+        this.weekdays = symbols.getWeekdays();
+        this.shortWeekdays = symbols.getShortWeekdays();
+    }
+
+    /**
+     * Creates a format for a pattern.
+     *
+     * @param pattern   the date pattern, as defined by {@link java.text.SimpleDateFormat}
+     * @param locale    the locale of the format
+     * @return          the format, or null if the pattern or locale is not handled
+     */
+    public static HijriDateFormat compile(String pattern, Locale locale) {
+        if (DecimalFormatSymbols.getInstance(locale).getZeroDigit() != '0') {
+            return null;
+        }
+
+        List<Character> letters = new ArrayList<>();
+        List<Integer> counts = new ArrayList<>();
+        List<String> literals = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int length = pattern.length();
+        int i = 0;
+        while (i < length) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                // quoted text, where two quotes stand for one
+                i++;
+                if (i < length && pattern.charAt(i) == '\'') {
+                    literal.append('\'');
+                    i++;
+                    continue;
+                }
+                while (i < length) {
+                    char q = pattern.charAt(i);
+                    if (q == '\'') {
+                        if (i + 1 < length && pattern.charAt(i + 1) == '\'') {
+                            literal.append('\'');
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    literal.append(q);
+                    i++;
+                }
+                if (i == length) {
+                    return null; // unterminated quote
+                }
+                i++;
+            } else if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+                if (c != 'd' && c != 'M' && c != 'y' && c != 'E') {
+                    return null;
+                }
+                int count = 1;
+                while (i + count < length && pattern.charAt(i + count) == c) {
+                    count++;
+                }
+                if (literal.length() > 0) {
+                    letters.add(LITERAL);
+                    counts.add(0);
+                    literals.add(literal.toString());
+                    literal.setLength(0);
+                }
+                letters.add(c);
+                counts.add(count);
+                literals.add(null);
+                i += count;
+            } else {
+                literal.append(c);
+                i++;
+            }
+        }
+        if (literal.length() > 0) {
+            letters.add(LITERAL);
+            counts.add(0);
+            literals.add(literal.toString());
+        }
+
+        return new HijriDateFormat(letters, counts, literals, DateFormatCache.getHijriSymbols(locale));
+    }
+
+    /**
+     * Formats a time.
+     *
+     * @param millis    the time, in milliseconds since the epoch
+     * @param timeZone  the time zone to display the date in
+     * @param date      receives the Hijri date; passed in so that it can be reused
+     * @param out       receives the formatted date
+     * @return          true if the date is covered by {@link UmmalquraTable} and was formatted, otherwise false
+     */
+    public boolean format(long millis, TimeZone timeZone, UmmalquraTable.HijriDate date, StringBuilder out) {
+        long epochDay = UmmalquraTable.toEpochDay(millis, timeZone);
+        if (!UmmalquraTable.fromEpochDay(epochDay, date)) {
+            return false;
+        }
+
+        for (int i = 0; i < fieldLetters.length; i++) {
+            int count = fieldCounts[i];
+            switch (fieldLetters[i]) {
+                case 'd':
+                    appendNumber(out, date.day, count);
+                    break;
+                case 'M':
+                    if (count >= 4) {
+                        out.append(months[date.month]);
+                    } else if (count == 3) {
+                        out.append(shortMonths[date.month]);
+                    } else {
+                        appendNumber(out, date.month + 1, count);
+                    }
+                    break;
+                case 'y':
+                    if (count == 2) {
+                        appendNumber(out, date.year % 100, 2);
+                    } else {
+                        appendNumber(out, date.year, count);
+                    }
+                    break;
+                case 'E':
+                    // January 1, 1970 was a Thursday; Calendar numbers days from Sunday = 1
+                    int dayOfWeek = (int) (((epochDay + 4) % 7 + 7) % 7) + 1;
+                    out.append(count >= 4 ? weekdays[dayOfWeek] : shortWeekdays[dayOfWeek]);
+                    break;
+                default:
+                    out.append(literals[i]);
+                    break;
+            }
+        }
+        return true;
+    }
+
+    private static void appendNumber(StringBuilder out, int value, int minDigits) {
+        int digits = 1;
+        for (int v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        for (; digits < minDigits; digits++) {
+            out.append('0');
+        }
+        out.append(value);
+    }
+}
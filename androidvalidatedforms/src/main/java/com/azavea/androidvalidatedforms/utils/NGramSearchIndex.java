@@ -0,0 +1,316 @@
+package com.azavea.androidvalidatedforms.utils;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Finds the items containing a query, or resembling it, ignoring case. Each item is split into its trigrams, the runs
+ * of three characters of the lowercased item padded with a space at either end, and the index maps each trigram to
+ * the items containing it. A query then only looks at the items sharing a trigram with it.
+ * <p/>
+ * Results are ranked: items starting with the query come first, then items with a word starting with it, then other
+ * matches. Items of the same rank are ordered by length, then by their position in the original list.
+ * <p/>
+ * Building the index should be done in the background. Once built, an index is immutable and may be shared between
+ * threads; searches go through a {@link Searcher}, which must not be.
+ */
+public final class NGramSearchIndex {
+
+    // smallest share of the query's trigrams an item must have to be a fuzzy match
+    private static final float MIN_FUZZY_SIMILARITY = 0.5f;
+
+    // scores of a match; fuzzy matches that do not contain the query score their number of shared trigrams, below these
+    private static final int SCORE_CONTAINS = 1 << 16;
+    private static final int SCORE_WORD_START = SCORE_CONTAINS + 1;
+    private static final int SCORE_PREFIX = SCORE_CONTAINS + 2;
+
+    private static final int[] NO_ITEMS = new int[0];
+
+    private final Locale locale;
+    private final String[] keys;
+    private final Map<Long, int[]> postings;
+
+    /**
+     * Builds the index of a list of items.
+     *
+     * @param items     the items to search
+     * @param locale    the locale used to lowercase the items and the queries
+     */
+    public NGramSearchIndex(List<String> items, Locale locale) {
+        this.locale = locale;
+
+        int size = items.size();
+        keys = new String[size];
+        long[][] itemGrams = new long[size][];
+        Map<Long, int[]> counts = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            keys[i] = items.get(i).toLowerCase(locale);
+            itemGrams[i] = distinctTrigrams(keys[i], true);
+            for (long gram : itemGrams[i]) {
+                int[] count = counts.get(gram);
+                if (count == null) {
+                    count = new int[1];
+                    counts.put(gram, count);
+                }
+                count[0]++;
+            }
+        }
+
+        // fill the lists of items in increasing order, reusing the counts as fill positions
+        postings = new HashMap<>(counts.size() * 4 / 3 + 1);
+        for (Map.Entry<Long, int[]> entry : counts.entrySet()) {
+            postings.put(entry.getKey(), new int[entry.getValue()[0]]);
+            entry.getValue()[0] = 0;
+        }
+        for (int i = 0; i < size; i++) {
+            for (long gram : itemGrams[i]) {
+                int[] fill = counts.get(gram);
+                postings.get(gram)[fill[0]++] = i;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of items in the index.
+     *
+     * @return the number of items
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Lowercases a query the same way as the items.
+     *
+     * @param query the query
+     * @return      the lowercased query
+     */
+    public String normalize(String query) {
+        return query.toLowerCase(locale);
+    }
+
+    /**
+     * Creates a searcher for this index, holding the working memory of a search.
+     *
+     * @return a new searcher
+     */
+    public Searcher newSearcher() {
+        return new Searcher();
+    }
+
+    /**
+     * Returns the distinct trigrams of a text, each packed into a long.
+     *
+     * @param padded    if true, pad the text with a space at either end
+     */
+    private static long[] distinctTrigrams(String text, boolean padded) {
+        int offset = padded ? 1 : 0;
+        int length = text.length() + 2 * offset;
+        if (length < 3) {
+            return new long[0];
+        }
+
+        long[] grams = new long[length - 2];
+        for (int i = 0; i < grams.length; i++) {
+            int start = i - offset;
+            grams[i] = pack(charAt(text, start), charAt(text, start + 1), charAt(text, start + 2));
+        }
+        Arrays.sort(grams);
+
+        int distinct = 0;
+        for (int i = 0; i < grams.length; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) {
+                grams[distinct++] = grams[i];
+            }
+        }
+        return distinct == grams.length ? grams : Arrays.copyOf(grams, distinct);
+    }
+
+    // character of the padded text
+    private static char charAt(String text, int index) {
+        return index < 0 || index >= text.length() ? ' ' : text.charAt(index);
+    }
+
+    private static long pack(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    /**
+     * Scores an item containing the query.
+     */
+    private static int containsScore(String key, int matchIndex) {
+        if (matchIndex == 0) {
+            return SCORE_PREFIX;
+        }
+        return Character.isLetterOrDigit(key.charAt(matchIndex - 1)) ? SCORE_CONTAINS : SCORE_WORD_START;
+    }
+
+    /**
+     * Runs searches on the index. A searcher reuses its working memory between searches, so it must not be shared
+     * between threads.
+     */
+    public final class Searcher {
+        // number of query trigrams found in each item, and the items with a non-zero count
+        private final int[] counts = new int[keys.length];
+        private final int[] touched = new int[keys.length];
+        private int touchedCount;
+        private long[] heap = new long[0];
+        private int heapSize;
+        private int heapCapacity;
+
+        private Searcher() {
+        }
+
+        /**
+         * Finds the items containing a query.
+         *
+         * @param query         the query, as returned by {@link #normalize}
+         * @param maxResults    the largest number of results to return
+         * @param results       receives the positions of the best matches in the original list, best first; must hold
+         *                      at least {@code maxResults} items
+         * @return              the number of results
+         */
+        public int searchSubstring(String query, int maxResults, int[] results) {
+            return search(query, maxResults, results, false);
+        }
+
+        /**
+         * Finds the items containing a query, or sharing most of its trigrams, so that misspelled queries still
+         * find an item. Items containing the query rank first.
+         *
+         * @param query         the query, as returned by {@link #normalize}
+         * @param maxResults    the largest number of results to return
+         * @param results       receives the positions of the best matches in the original list, best first; must hold
+         *                      at least {@code maxResults} items
+         * @return              the number of results
+         */
+        public int searchFuzzy(String query, int maxResults, int[] results) {
+            return search(query, maxResults, results, true);
+        }
+
+        private int search(String query, int maxResults, int[] results, boolean fuzzy) {
+            startHeap(Math.max(maxResults, 0));
+            if (query.isEmpty() || maxResults <= 0) {
+                return 0;
+            }
+
+            if (query.length() < 3) {
+                // too short to have a trigram of its own without padding; a scan is fast enough for so few letters.
+                // Fuzzy searches scan too, as every item sharing a padded trigram with such a query contains it.
+                for (int i = 0; i < keys.length; i++) {
+                    int matchIndex = keys[i].indexOf(query);
+                    if (matchIndex >= 0) {
+                        offer(containsScore(keys[i], matchIndex), i);
+                    }
+                }
+                return drainHeap(results);
+            }
+
+            // padded grams at the ends of the query only match at word boundaries, so leave them out for substring
+            // searches
+            long[] queryGrams = distinctTrigrams(query, fuzzy);
+            for (long gram : queryGrams) {
+                int[] items = postings.get(gram);
+                for (int item : items != null ? items : NO_ITEMS) {
+                    if (counts[item]++ == 0) {
+                        touched[touchedCount++] = item;
+                    }
+                }
+            }
+
+            // an item containing the query has all of its unpadded trigrams, but may lack the padded ones at its ends
+            int minContaining = fuzzy ? distinctTrigrams(query, false).length : queryGrams.length;
+            int minShared = fuzzy ? Math.max(1, (int) Math.ceil(queryGrams.length * MIN_FUZZY_SIMILARITY))
+                    : queryGrams.length;
+            for (int t = 0; t < touchedCount; t++) {
+                int item = touched[t];
+                int shared = counts[item];
+                counts[item] = 0;
+                if (shared < minShared && shared < minContaining) {
+                    continue;
+                }
+
+                int matchIndex = keys[item].indexOf(query);
+                if (matchIndex >= 0) {
+                    offer(containsScore(keys[item], matchIndex), item);
+                } else if (fuzzy && shared >= minShared) {
+                    offer(shared, item);
+                }
+            }
+            touchedCount = 0;
+            return drainHeap(results);
+        }
+
+        // the heap keeps the best maxResults matches seen, worst at the root
+
+        private void startHeap(int maxResults) {
+            if (heap.length < maxResults) {
+                heap = new long[maxResults];
+            }
+            heapSize = 0;
+            heapCapacity = maxResults;
+        }
+
+        /**
+         * Offers a match to the heap, as a rank combining its score, its shortness and its position, so that a
+         * better match has a greater rank.
+         */
+        private void offer(int score, int item) {
+            long shortness = 0xFFFFF - Math.min(keys[item].length(), 0xFFFFF);
+            long rank = ((long) score << 44) | (shortness << 24) | (0xFFFFFF - item);
+            if (heapSize < heapCapacity) {
+                // sift up
+                int i = heapSize++;
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (heap[parent] <= rank) {
+                        break;
+                    }
+                    heap[i] = heap[parent];
+                    i = parent;
+                }
+                heap[i] = rank;
+            } else if (rank > heap[0]) {
+                siftDown(rank, heapSize);
+            }
+        }
+
+        // replaces the root with rank, within the first size entries of the heap
+        private void siftDown(long rank, int size) {
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && heap[child + 1] < heap[child]) {
+                    child++;
+                }
+                if (heap[child] >= rank) {
+                    break;
+                }
+                heap[i] = heap[child];
+                i = child;
+            }
+            heap[i] = rank;
+        }
+
+        /**
+         * Empties the heap into the results, best first.
+         */
+        private int drainHeap(int[] results) {
+            int count = heapSize;
+            // removing the worst match each time fills the results from the end
+            for (int size = heapSize; size > 0; size--) {
+                long worst = heap[0];
+                results[size - 1] = 0xFFFFFF - (int) (worst & 0xFFFFFF);
+                siftDown(heap[size - 1], size - 1);
+            }
+            heapSize = 0;
+            return count;
+        }
+    }
+}
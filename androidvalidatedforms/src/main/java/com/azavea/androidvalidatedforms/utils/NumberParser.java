@@ -0,0 +1,279 @@
+package com.azavea.androidvalidatedforms.utils;
+
+/**
+ * Parses numbers directly from a {@link CharSequence}, such as the {@code Editable} of a text field, without creating
+ * an intermediate {@code String} or boxing the result. Accepts the same input as {@link Long#parseLong(String)} and
+ * {@link Double#parseDouble(String)}; the latter is still used for the rare decimal inputs that cannot be converted
+ * exactly by the fast path.
+ * <p/>
+ * The parsed value is kept on the parser instance, so an instance must not be shared between threads.
+ */
+public final class NumberParser {
+
+    // largest integer a double represents exactly
+    private static final long MAX_EXACT_DOUBLE_MANTISSA = 1L << 53;
+    private static final long MAX_EXACT_FLOAT_MANTISSA = 1L << 24;
+    private static final int MAX_EXACT_DOUBLE_POWER = 22;
+    private static final int MAX_EXACT_FLOAT_POWER = 10;
+
+    // results of splitting decimal notation
+    private static final int INVALID = 0;
+    private static final int DECIMAL = 1;
+    private static final int OTHER = 2;
+
+    private static final double[] DOUBLE_POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final float[] FLOAT_POWERS_OF_TEN = {
+            1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+    };
+
+    private long longValue;
+    private double doubleValue;
+    private float floatValue;
+
+    // decimal parsed by parseDecimal: mantissa * 10^exponent
+    private long mantissa;
+    private int exponent;
+    private boolean negative;
+
+    /**
+     * Parses an integer within the given range.
+     *
+     * @param text  the text to parse
+     * @param min   the smallest accepted value
+     * @param max   the largest accepted value
+     * @return      true if the text is an integer within range, available from {@link #getLong()}; otherwise false
+     */
+    public boolean parseLong(CharSequence text, long min, long max) {
+        int length = text.length();
+        if (length == 0) {
+            return false;
+        }
+
+        int i = 0;
+        boolean isNegative = false;
+        char first = text.charAt(0);
+        if (first == '-' || first == '+') {
+            isNegative = first == '-';
+            if (length == 1) {
+                return false;
+            }
+            i = 1;
+        }
+
+        // accumulate negatively, so that Long.MIN_VALUE can be parsed
+        long limit = isNegative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        long multiplyLimit = limit / 10;
+        long result = 0;
+        for (; i < length; i++) {
+            int digit = Character.digit(text.charAt(i), 10);
+            if (digit < 0 || result < multiplyLimit) {
+                return false;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return false;
+            }
+            result -= digit;
+        }
+
+        long value = isNegative ? result : -result;
+        if (value < min || value > max) {
+            return false;
+        }
+        longValue = value;
+        return true;
+    }
+
+    /**
+     * Parses a double.
+     *
+     * @param text  the text to parse
+     * @return      true if the text is a number, available from {@link #getDouble()}; otherwise false
+     */
+    public boolean parseDouble(CharSequence text) {
+        switch (parseDecimal(text)) {
+            case DECIMAL:
+                if (mantissa < MAX_EXACT_DOUBLE_MANTISSA && Math.abs(exponent) <= MAX_EXACT_DOUBLE_POWER) {
+                    // both operands are exact, so a single operation rounds correctly
+                    double value = exponent >= 0
+                            ? mantissa * DOUBLE_POWERS_OF_TEN[exponent]
+                            : mantissa / DOUBLE_POWERS_OF_TEN[-exponent];
+                    doubleValue = negative ? -value : value;
+                    return true;
+                }
+                return parseDoubleSlowly(text);
+            case OTHER:
+                return parseDoubleSlowly(text);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Parses a float.
+     *
+     * @param text  the text to parse
+     * @return      true if the text is a number, available from {@link #getFloat()}; otherwise false
+     */
+    public boolean parseFloat(CharSequence text) {
+        switch (parseDecimal(text)) {
+            case DECIMAL:
+                if (mantissa < MAX_EXACT_FLOAT_MANTISSA && Math.abs(exponent) <= MAX_EXACT_FLOAT_POWER) {
+                    float value = exponent >= 0
+                            ? mantissa * FLOAT_POWERS_OF_TEN[exponent]
+                            : mantissa / FLOAT_POWERS_OF_TEN[-exponent];
+                    floatValue = negative ? -value : value;
+                    return true;
+                }
+                return parseFloatSlowly(text);
+            case OTHER:
+                return parseFloatSlowly(text);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Returns the value of the last successful call to {@link #parseLong}.
+     *
+     * @return the parsed integer
+     */
+    public long getLong() {
+        return longValue;
+    }
+
+    /**
+     * Returns the value of the last successful call to {@link #parseDouble}.
+     *
+     * @return the parsed double
+     */
+    public double getDouble() {
+        return doubleValue;
+    }
+
+    /**
+     * Returns the value of the last successful call to {@link #parseFloat}.
+     *
+     * @return the parsed float
+     */
+    public float getFloat() {
+        return floatValue;
+    }
+
+    /**
+     * Splits plain decimal notation, [sign] digits [. digits] [e [sign] digits], into mantissa and exponent.
+     *
+     * @return DECIMAL if the text was split, INVALID if it is not a number, or OTHER if the text uses notation that
+     *         is not handled here, such as hexadecimal, or has too many digits
+     */
+    private int parseDecimal(CharSequence text) {
+        int length = text.length();
+        int i = 0;
+        negative = false;
+        if (length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+            negative = text.charAt(0) == '-';
+            i++;
+        }
+
+        long value = 0;
+        int scale = 0;
+        int digits = 0;
+        boolean overflow = false;
+        boolean seenPoint = false;
+        for (; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+                if (value < MAX_EXACT_DOUBLE_MANTISSA) {
+                    value = value * 10 + (c - '0');
+                    if (seenPoint) {
+                        scale--;
+                    }
+                } else {
+                    overflow = true;
+                }
+            } else if (c == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                break;
+            }
+        }
+        if (digits == 0) {
+            return hasOnlyDecimalCharacters(text, i) ? INVALID : OTHER;
+        }
+
+        if (i < length && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < length && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+                negativeExponent = text.charAt(i) == '-';
+                i++;
+            }
+            int exponentDigits = 0;
+            int exponentValue = 0;
+            for (; i < length; i++) {
+                char c = text.charAt(i);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                exponentDigits++;
+                if (exponentValue < 10000) {
+                    exponentValue = exponentValue * 10 + (c - '0');
+                } else {
+                    overflow = true;
+                }
+            }
+            if (exponentDigits == 0) {
+                return hasOnlyDecimalCharacters(text, i) ? INVALID : OTHER;
+            }
+            scale += negativeExponent ? -exponentValue : exponentValue;
+        }
+
+        if (i < length) {
+            // trailing characters, such as a type suffix or whitespace
+            return hasOnlyDecimalCharacters(text, i) ? INVALID : OTHER;
+        }
+        if (overflow) {
+            return OTHER;
+        }
+
+        mantissa = value;
+        exponent = scale;
+        return DECIMAL;
+    }
+
+    /**
+     * Indicates whether the rest of the text only has characters of plain decimal notation, in which case text that
+     * failed to parse as plain decimal notation is not a number at all.
+     */
+    private static boolean hasOnlyDecimalCharacters(CharSequence text, int start) {
+        for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if ((c < '0' || c > '9') && c != '.' && c != '-' && c != '+' && c != 'e' && c != 'E') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean parseDoubleSlowly(CharSequence text) {
+        try {
+            doubleValue = Double.parseDouble(text.toString());
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private boolean parseFloatSlowly(CharSequence text) {
+        try {
+            floatValue = Float.parseFloat(text.toString());
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
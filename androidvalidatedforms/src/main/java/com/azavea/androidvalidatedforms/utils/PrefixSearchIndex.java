@@ -0,0 +1,136 @@
+package com.azavea.androidvalidatedforms.utils;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Finds the items starting with a prefix, ignoring case. The items are lowercased and sorted once, when the index is
+ * built, so that the items matching a prefix are a contiguous range of the sorted keys, found by binary search. The
+ * matches can be read straight from that range with {@link #getItemIndex}, in the order of the keys, with equal keys
+ * in the order of the original list.
+ * <p/>
+ * Building the index takes time proportional to sorting the items, and should be done in the background. Once built,
+ * an index is immutable and may be shared between threads.
+ */
+public final class PrefixSearchIndex {
+    private final Locale locale;
+    private final String[] keys;
+    // position of each sorted key in the original list
+    private final int[] order;
+
+    /**
+     * Builds the index of a list of items.
+     *
+     * @param items     the items to search
+     * @param locale    the locale used to lowercase the items and the queries
+     */
+    public PrefixSearchIndex(List<String> items, Locale locale) {
+        this.locale = locale;
+
+        int size = items.size();
+        final String[] lowercased = new String[size];
+        Integer[] sorted = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            lowercased[i] = items.get(i).toLowerCase(locale);
+            sorted[i] = i;
+        }
+
+        // equal keys keep the order of the original list
+        Arrays.sort(sorted, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                int result = lowercased[a].compareTo(lowercased[b]);
+                return result != 0 ? result : a.compareTo(b);
+            }
+        });
+
+        keys = new String[size];
+        order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = sorted[i];
+            keys[i] = lowercased[order[i]];
+        }
+    }
+
+    /**
+     * Returns the number of items in the index.
+     *
+     * @return the number of items
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Lowercases a query the same way as the items.
+     *
+     * @param query the query
+     * @return      the lowercased query
+     */
+    public String normalize(String query) {
+        return query.toLowerCase(locale);
+    }
+
+    /**
+     * Returns the first sorted position of the items starting with a prefix.
+     *
+     * @param prefix    the prefix, as returned by {@link #normalize}
+     * @return          the position of the first matching item, or of where it would be if there is none
+     */
+    public int start(String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the sorted position after the last item starting with a prefix.
+     *
+     * @param prefix    the prefix, as returned by {@link #normalize}
+     * @param start     the position returned by {@link #start} for the same prefix
+     * @return          the position after the last matching item
+     */
+    public int end(String prefix, int start) {
+        int low = start;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].startsWith(prefix)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the position in the original list of the item at a sorted position.
+     *
+     * @param sortedPosition    the position among the sorted items
+     * @return                  the position of the item in the list the index was built from
+     */
+    public int getItemIndex(int sortedPosition) {
+        return order[sortedPosition];
+    }
+
+    /**
+     * Returns the lowercased key of the item at a sorted position.
+     *
+     * @param sortedPosition    the position among the sorted items
+     * @return                  the lowercased item
+     */
+    public String getKey(int sortedPosition) {
+        return keys[sortedPosition];
+    }
+}
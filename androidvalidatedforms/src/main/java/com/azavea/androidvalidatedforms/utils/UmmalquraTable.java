@@ -0,0 +1,165 @@
+package com.azavea.androidvalidatedforms.utils;
+
+import com.github.msarhan.ummalqura.calendar.UmmalquraCalendar;
+
+import java.util.Calendar;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Converts between days since the epoch and dates of the Umm al-Qura calendar using a table of the first day of
+ * each month, so that a conversion is a binary search rather than a full {@link Calendar} computation.
+ * <p/>
+ * The table covers the years {@link #MIN_YEAR} to {@link #MAX_YEAR}. It is filled once, on first use, from
+ * {@link UmmalquraCalendar}, so that conversions always agree with it.
+ */
+public final class UmmalquraTable {
+
+    /**
+     * First Hijri year covered by the table.
+     */
+    public static final int MIN_YEAR = 1356;
+
+    /**
+     * Last Hijri year covered by the table.
+     */
+    public static final int MAX_YEAR = 1500;
+
+    private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000;
+
+    private UmmalquraTable() {
+    }
+
+    /**
+     * A Hijri date. Instances are filled in by {@link #fromEpochDay}, so that callers can reuse one.
+     */
+    public static final class HijriDate {
+        /**
+         * The Hijri year.
+         */
+        public int year;
+
+        /**
+         * The 0-based month, as used by {@link Calendar#MONTH}.
+         */
+        public int month;
+
+        /**
+         * The day of the month, starting from 1.
+         */
+        public int day;
+    }
+
+    // lazily loaded on first use
+    private static final class Holder {
+        // epoch day of the first day of each month, plus the day after the last month
+        static final int[] MONTH_STARTS = buildMonthStarts();
+    }
+
+    private static int[] buildMonthStarts() {
+        int months = (MAX_YEAR - MIN_YEAR + 1) * 12;
+        int[] starts = new int[months + 1];
+        UmmalquraCalendar calendar = new UmmalquraCalendar(Locale.US);
+        calendar.setTimeZone(TimeZone.getTimeZone("UTC"));
+        for (int i = 0; i < months; i++) {
+            calendar.set(MIN_YEAR + i / 12, i % 12, 1, 0, 0, 0);
+            calendar.set(Calendar.MILLISECOND, 0);
+            starts[i] = (int) (calendar.getTimeInMillis() / MILLIS_PER_DAY);
+        }
+        // the year after MAX_YEAR may be outside the calendar's data, so end the table with the last month's length
+        starts[months] = starts[months - 1] + calendar.getActualMaximum(Calendar.DAY_OF_MONTH);
+        return starts;
+    }
+
+    /**
+     * Indicates whether a day is covered by the table.
+     *
+     * @param epochDay  the number of days since January 1, 1970
+     * @return          true if the day can be converted, otherwise false
+     */
+    public static boolean isSupported(long epochDay) {
+        int[] starts = Holder.MONTH_STARTS;
+        return epochDay >= starts[0] && epochDay < starts[starts.length - 1];
+    }
+
+    /**
+     * Converts a day to its Hijri date.
+     *
+     * @param epochDay  the number of days since January 1, 1970
+     * @param date      receives the Hijri date
+     * @return          true if the day is covered by the table and {@code date} was set, otherwise false
+     */
+    public static boolean fromEpochDay(long epochDay, HijriDate date) {
+        if (!isSupported(epochDay)) {
+            return false;
+        }
+
+        // find the last month starting on or before the day
+        int[] starts = Holder.MONTH_STARTS;
+        int low = 0;
+        int high = starts.length - 2;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (starts[mid] <= epochDay) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        date.year = MIN_YEAR + low / 12;
+        date.month = low % 12;
+        date.day = (int) (epochDay - starts[low]) + 1;
+        return true;
+    }
+
+    /**
+     * Converts a Hijri date to a day.
+     *
+     * @param year  the Hijri year
+     * @param month the 0-based month
+     * @param day   the day of the month, starting from 1
+     * @return      the number of days since January 1, 1970
+     * @throws IllegalArgumentException if the date is not covered by the table
+     */
+    public static long toEpochDay(int year, int month, int day) {
+        int index = (year - MIN_YEAR) * 12 + month;
+        int[] starts = Holder.MONTH_STARTS;
+        if (year < MIN_YEAR || year > MAX_YEAR || month < 0 || month > 11
+                || day < 1 || day > starts[index + 1] - starts[index]) {
+            throw new IllegalArgumentException("Hijri date out of range: " + year + "/" + (month + 1) + "/" + day);
+        }
+        return starts[index] + day - 1;
+    }
+
+    /**
+     * Returns the number of days in a Hijri month.
+     *
+     * @param year  the Hijri year
+     * @param month the 0-based month
+     * @return      the number of days in the month, 29 or 30
+     * @throws IllegalArgumentException if the month is not covered by the table
+     */
+    public static int lengthOfMonth(int year, int month) {
+        if (year < MIN_YEAR || year > MAX_YEAR || month < 0 || month > 11) {
+            throw new IllegalArgumentException("Hijri month out of range: " + year + "/" + (month + 1));
+        }
+        int index = (year - MIN_YEAR) * 12 + month;
+        int[] starts = Holder.MONTH_STARTS;
+        return starts[index + 1] - starts[index];
+    }
+
+    /**
+     * Returns the day of a time in a time zone.
+     *
+     * @param millis    the time, in milliseconds since the epoch
+     * @param timeZone  the time zone
+     * @return          the number of days since January 1, 1970
+     */
+    public static long toEpochDay(long millis, TimeZone timeZone) {
+        long local = millis + timeZone.getOffset(millis);
+        // round towards negative infinity for times before the epoch
+        long day = local / MILLIS_PER_DAY;
+        return local % MILLIS_PER_DAY < 0 ? day - 1 : day;
+    }
+}
@@ -0,0 +1,96 @@
+package com.azavea.androidvalidatedforms.utils;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps the values of a list to their positions, for constant time lookups. Indexes are shared: every caller asking for
+ * the index of the same list instance gets the same index, which is built only once, and dropped once the list is no
+ * longer referenced. Lists must not be modified after their index is built.
+ */
+public final class ValueIndex {
+
+    private static final Map<ListKey, ValueIndex> cache = new HashMap<>();
+    private static final ReferenceQueue<List<?>> collectedLists = new ReferenceQueue<>();
+
+    private final Map<Object, Integer> positions;
+
+    private ValueIndex(List<?> values) {
+        positions = new HashMap<>(values.size() * 4 / 3 + 1);
+        for (int i = values.size() - 1; i >= 0; i--) {
+            // iterate backwards, so the first of duplicate values wins
+            positions.put(values.get(i), i);
+        }
+    }
+
+    /**
+     * Returns the index of a list, building it if no index of that list instance exists yet.
+     *
+     * @param values    the list to index
+     * @return          the shared index of the list
+     */
+    public static ValueIndex of(List<?> values) {
+        synchronized (cache) {
+            expungeCollectedLists();
+
+            ListKey lookup = new ListKey(values, null);
+            ValueIndex index = cache.get(lookup);
+            if (index == null) {
+                index = new ValueIndex(values);
+                cache.put(new ListKey(values, collectedLists), index);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Returns the position of the first occurrence of a value in the indexed list.
+     *
+     * @param value the value to find; may be null
+     * @return      the 0-based position of the value, or -1 if it is not in the list
+     */
+    public int indexOf(Object value) {
+        Integer position = positions.get(value);
+        return position != null ? position : -1;
+    }
+
+    private static void expungeCollectedLists() {
+        Object key;
+        while ((key = collectedLists.poll()) != null) {
+            cache.remove(key);
+        }
+    }
+
+    /**
+     * Weak reference to a list that compares by identity of the list, so that lookups never hash the list's
+     * contents.
+     */
+    private static final class ListKey extends WeakReference<List<?>> {
+        private final int hash;
+
+        ListKey(List<?> list, ReferenceQueue<List<?>> queue) {
+            super(list, queue);
+            hash = System.identityHashCode(list);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof ListKey)) {
+                return false;
+            }
+            List<?> list = get();
+            return list != null && list == ((ListKey) other).get();
+        }
+    }
+}
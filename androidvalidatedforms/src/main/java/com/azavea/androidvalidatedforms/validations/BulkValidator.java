@@ -0,0 +1,237 @@
+package com.azavea.androidvalidatedforms.validations;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Path;
+
+/**
+ * Validates many model objects against the constraints of a form, without any views or {@code Context}.
+ * <p/>
+ * Each record is checked the same way {@link com.azavea.androidvalidatedforms.controllers.LabeledFieldController}
+ * checks a single field: non-null values are validated with Hibernate Validator and against the range and empty value
+ * of their {@link FieldDefinition}, and null values are only an error when the field is required. The error summaries only keep the text of each error, not the invalid records.
+ * Records are validated in chunks on a thread pool, so the input can be streamed from an
+ * {@code Iterable} that is never held in memory all at once.
+ */
+public class BulkValidator {
+
+    private static final int DEFAULT_CHUNK_SIZE = 64;
+
+    private final List<FieldDefinition> fields;
+    private final ExecutorService executor;
+    private final int parallelism;
+    private final ConcurrentHashMap<Class<?>, Field[]> fieldCache = new ConcurrentHashMap<>();
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    /**
+     * Creates a validator that runs on its own thread pool, sized to the number of available processors.
+     * The pool is created for each call to {@link #validate(Iterable)} and shut down when it completes.
+     *
+     * @param fields    the fields to validate on each record; see {@link FieldDefinition#fromForm}
+     */
+    public BulkValidator(List<FieldDefinition> fields) {
+        this(fields, null, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a validator that runs on the given executor. The executor is not shut down by this class.
+     *
+     * @param fields        the fields to validate on each record; see {@link FieldDefinition#fromForm}
+     * @param executor      the executor to run validation on
+     * @param parallelism   the number of chunks to keep in flight at once
+     */
+    public BulkValidator(List<FieldDefinition> fields, ExecutorService executor, int parallelism) {
+        this.fields = new ArrayList<>(fields);
+        this.executor = executor;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Sets the number of records validated together by a single task. Default is 64.
+     *
+     * @param chunkSize the number of records per task
+     */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Validates every record, returning a summary for each record that has errors.
+     *
+     * @param records   the model objects to validate; each must have a public field for every field definition
+     * @return          the error summaries of invalid records, in the order of the input. Valid records are omitted.
+     */
+    public List<RecordErrors> validate(Iterable<?> records) {
+        ExecutorService pool = executor;
+        if (pool == null) {
+            pool = Executors.newFixedThreadPool(parallelism);
+        }
+
+        try {
+            return validate(records.iterator(), pool);
+        } finally {
+            if (pool != executor) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Validates a single record on the calling thread. The record is validated in a single pass, and the violations
+     * are grouped by the field they are on.
+     *
+     * @param record    the model object to validate
+     * @return          the validation errors of the record, in the order of the field definitions; empty if it is valid
+     */
+    public List<ValidationError> validateRecord(Object record) {
+        Field[] modelFields = getModelFields(record.getClass());
+        Set<ConstraintViolation<Object>> violations = HibernateValidatorInstance.getValidator().validate(record);
+
+        Map<String, List<ConstraintViolation<?>>> violationsByProperty = new HashMap<>();
+        for (ConstraintViolation<Object> violation : violations) {
+            // only keep violations directly on a property, as the form validates each field's property on its own
+            Iterator<Path.Node> nodes = violation.getPropertyPath().iterator();
+            if (!nodes.hasNext()) {
+                continue;
+            }
+            String property = nodes.next().getName();
+            if (property == null || nodes.hasNext()) {
+                continue;
+            }
+
+            List<ConstraintViolation<?>> propertyViolations = violationsByProperty.get(property);
+            if (propertyViolations == null) {
+                propertyViolations = new ArrayList<>();
+                violationsByProperty.put(property, propertyViolations);
+            }
+            propertyViolations.add(violation);
+        }
+
+        List<ValidationError> errors = new ArrayList<>();
+        for (int i = 0; i < modelFields.length; i++) {
+            FieldDefinition field = fields.get(i);
+            Object value;
+            try {
+                value = modelFields[i].get(record);
+            } catch (IllegalAccessException e) {
+                throw new IllegalArgumentException("Cannot read field " + field.getName(), e);
+            }
+
+            // as on the form, a null value is only checked against the required flag, not its constraint violations
+            if (value != null) {
+                List<ConstraintViolation<?>> fieldViolations = violationsByProperty.get(field.getName());
+                if (fieldViolations != null) {
+                    for (ConstraintViolation<?> violation : fieldViolations) {
+                        errors.add(new HibernationError(field.getName(), field.getLabel(), violation));
+                    }
+                }
+
+                // then the rules the field's controller checks itself
+                if (field.isOutOfRange(value)) {
+                    errors.add(new OutOfRangeError(field.getName(), field.getLabel(), field.getMin(), field.getMax()));
+                }
+                if (field.isRequired() && value.equals(field.getEmptyValue())) {
+                    errors.add(new RequiredField(field.getName(), field.getLabel()));
+                }
+            } else if (field.isRequired()) {
+                errors.add(new RequiredField(field.getName(), field.getLabel()));
+            }
+        }
+
+        return errors;
+    }
+
+    private List<RecordErrors> validate(Iterator<?> records, ExecutorService pool) {
+        List<RecordErrors> results = new ArrayList<>();
+        List<Future<List<RecordErrors>>> pending = new ArrayList<>(parallelism);
+        int index = 0;
+
+        while (records.hasNext()) {
+            // submit up to one chunk per worker, then wait for them before reading more of the input
+            pending.clear();
+            while (records.hasNext() && pending.size() < parallelism) {
+                List<Object> chunk = new ArrayList<>(chunkSize);
+                while (records.hasNext() && chunk.size() < chunkSize) {
+                    chunk.add(records.next());
+                }
+                pending.add(pool.submit(new ChunkTask(chunk, index)));
+                index += chunk.size();
+            }
+
+            for (Future<List<RecordErrors>> future : pending) {
+                try {
+                    results.addAll(future.get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while validating records", e);
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    throw new IllegalStateException("Failed to validate records", cause);
+                }
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Looks up the public fields of a model class matching the field definitions, once per class.
+     */
+    private Field[] getModelFields(Class<?> modelClass) {
+        Field[] modelFields = fieldCache.get(modelClass);
+        if (modelFields == null) {
+            modelFields = new Field[fields.size()];
+            for (int i = 0; i < modelFields.length; i++) {
+                String name = fields.get(i).getName();
+                try {
+                    modelFields[i] = modelClass.getField(name);
+                } catch (NoSuchFieldException e) {
+                    throw new IllegalArgumentException("Model " + modelClass.getName() + " has no public field " + name, e);
+                }
+            }
+            fieldCache.put(modelClass, modelFields);
+        }
+        return modelFields;
+    }
+
+    private class ChunkTask implements Callable<List<RecordErrors>> {
+        private final List<Object> chunk;
+        private final int firstIndex;
+
+        ChunkTask(List<Object> chunk, int firstIndex) {
+            this.chunk = chunk;
+            this.firstIndex = firstIndex;
+        }
+
+        @Override
+        public List<RecordErrors> call() {
+            List<RecordErrors> chunkResults = new ArrayList<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                List<ValidationError> errors = validateRecord(chunk.get(i));
+                if (!errors.isEmpty()) {
+                    chunkResults.add(new RecordErrors(firstIndex + i, errors));
+                }
+            }
+            return chunkResults;
+        }
+    }
+}
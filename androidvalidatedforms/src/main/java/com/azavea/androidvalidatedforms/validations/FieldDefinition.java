@@ -0,0 +1,178 @@
+package com.azavea.androidvalidatedforms.validations;
+
+import com.azavea.androidvalidatedforms.FormController;
+import com.azavea.androidvalidatedforms.FormElementController;
+import com.azavea.androidvalidatedforms.controllers.DatePickerController;
+import com.azavea.androidvalidatedforms.controllers.DoubleFieldController;
+import com.azavea.androidvalidatedforms.controllers.FormSectionController;
+import com.azavea.androidvalidatedforms.controllers.IntFieldController;
+import com.azavea.androidvalidatedforms.controllers.LabeledFieldController;
+import com.azavea.androidvalidatedforms.controllers.LongFieldController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Describes a single validated field of a form, independent of any views.
+ * Used by {@link BulkValidator} to validate model objects without a {@link FormController}.
+ * <p/>
+ * Besides the constraints annotated on the model, a field definition carries the rules its controller checks itself:
+ * the range of a numeric field, and the value a primitive field holds when it has none, such as 0 on a date field
+ * backed by a {@code long}. Empty input in a primitive numeric field is only seen in its text, so it has no such value.
+ */
+public class FieldDefinition {
+    private final String name;
+    private final String label;
+    private final boolean required;
+    private final Number min;
+    private final Number max;
+    private final Object emptyValue;
+
+    /**
+     * Creates a new field definition.
+     *
+     * @param name      the name of the field on the model object
+     * @param label     the label of the field, used for error messages
+     * @param required  indicates whether this field must have a non-null value
+     */
+    public FieldDefinition(String name, String label, boolean required) {
+        this(name, label, required, null, null, null);
+    }
+
+    /**
+     * Creates a new field definition with the rules checked by the field's controller.
+     *
+     * @param name          the name of the field on the model object
+     * @param label         the label of the field, used for error messages
+     * @param required      indicates whether this field must have a value
+     * @param min           the smallest value allowed, or null if the field has no range
+     * @param max           the largest value allowed, or null if the field has no range
+     * @param emptyValue    the value the model field holds when it has none, which is an error on a required field
+     *                      like null is; or null if the field can hold any non-null value
+     */
+    public FieldDefinition(String name, String label, boolean required, Number min, Number max, Object emptyValue) {
+        if ((min == null) != (max == null)) {
+            throw new IllegalArgumentException("A range needs both a minimum and a maximum");
+        }
+        this.name = name;
+        this.label = label;
+        this.required = required;
+        this.min = min;
+        this.max = max;
+        this.emptyValue = emptyValue;
+    }
+
+    /**
+     * Returns the definitions of all the labeled fields of a form, in display order.
+     *
+     * @param form  the form to read the field definitions from
+     * @return      a list of the form's field definitions
+     */
+    public static List<FieldDefinition> fromForm(FormController form) {
+        List<FieldDefinition> fields = new ArrayList<>(form.getNumberOfElements());
+        for (FormSectionController section : form.getSections()) {
+            for (FormElementController element : section.getElements()) {
+                if (element instanceof LabeledFieldController) {
+                    fields.add(fromField(form, (LabeledFieldController) element));
+                }
+            }
+        }
+        return fields;
+    }
+
+    private static FieldDefinition fromField(FormController form, LabeledFieldController field) {
+        Number min = null;
+        Number max = null;
+        Object emptyValue = null;
+        if (field instanceof IntFieldController) {
+            min = ((IntFieldController) field).getMin();
+            max = ((IntFieldController) field).getMax();
+        } else if (field instanceof LongFieldController) {
+            min = ((LongFieldController) field).getMin();
+            max = ((LongFieldController) field).getMax();
+        } else if (field instanceof DoubleFieldController) {
+            min = ((DoubleFieldController) field).getMin();
+            max = ((DoubleFieldController) field).getMax();
+        } else if (field instanceof DatePickerController
+                && form.getModel().getBackingModelClass(field.getName()) == long.class) {
+            // a date field backed by a primitive long holds 0 when no date is set
+            emptyValue = 0L;
+        }
+        return new FieldDefinition(field.getName(), field.getLabel(), field.isRequired(), min, max, emptyValue);
+    }
+
+    /**
+     * Returns the name of the field on the model object.
+     *
+     * @return the name of the field
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the label of the field.
+     *
+     * @return the label of the field
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Indicates whether this field requires a non-null value.
+     *
+     * @return true if this field is required, otherwise false
+     */
+    public boolean isRequired() {
+        return required;
+    }
+
+    /**
+     * Returns the smallest value allowed for this field.
+     *
+     * @return the smallest allowed value, or null if the field has no range
+     */
+    public Number getMin() {
+        return min;
+    }
+
+    /**
+     * Returns the largest value allowed for this field.
+     *
+     * @return the largest allowed value, or null if the field has no range
+     */
+    public Number getMax() {
+        return max;
+    }
+
+    /**
+     * Returns the value the model field holds when it has none, such as 0 on a date field backed by a {@code long}.
+     *
+     * @return the value that stands for no value, or null if the field has none besides null
+     */
+    public Object getEmptyValue() {
+        return emptyValue;
+    }
+
+    /**
+     * Indicates whether a value is outside the range of this field, the way the field's controller checks it:
+     * decimal ranges compare as doubles, with NaN out of range, and whole number ranges as longs.
+     *
+     * @param value the non-null value of the field
+     * @return      true if the field has a range and the value is a number outside it, otherwise false
+     */
+    public boolean isOutOfRange(Object value) {
+        if (min == null || !(value instanceof Number)) {
+            return false;
+        }
+        Number number = (Number) value;
+        if (min instanceof Double || min instanceof Float || max instanceof Double || max instanceof Float) {
+            double doubleValue = number.doubleValue();
+            // written so that NaN is out of range
+            return !(doubleValue >= min.doubleValue() && doubleValue <= max.doubleValue());
+        }
+        long longValue = number.longValue();
+        return longValue < min.longValue() || longValue > max.longValue();
+    }
+}
@@ -30,7 +30,8 @@ import dalvik.system.PathClassLoader;
  */
 public class HibernateValidatorInstance {
 
-    private static Validator validator = createValidator();
+    private static Validator validator = createValidator(false);
+    private static Validator failFastValidator;
 
     /**
      * Get validator instance for the app
@@ -40,7 +41,20 @@ public class HibernateValidatorInstance {
         return validator;
     }
 
-    private static Validator createValidator() {
+    /**
+     * Get validator instance that stops at the first constraint violation.
+     * Use when only whether a value is valid matters, and not the full list of errors.
+     *
+     * @return Hibernate validator configured to fail fast
+     */
+    public static synchronized Validator getFailFastValidator() {
+        if (failFastValidator == null) {
+            failFastValidator = createValidator(true);
+        }
+        return failFastValidator;
+    }
+
+    private static Validator createValidator(boolean failFast) {
 
         // Define a resource bundle that will find the appropriate ValidationMessages_<locale>.properties
         // file on the classpath.
@@ -57,6 +71,7 @@ public class HibernateValidatorInstance {
                 })
                 .configure()
                 .ignoreXmlConfiguration()
+                .failFast(failFast)
                 .messageInterpolator(new ResourceBundleMessageInterpolator(resourceBundleLocator))
                 .buildValidatorFactory().getValidator();
     }
@@ -9,15 +9,39 @@ import javax.validation.ConstraintViolation;
  */
 public class HibernationError extends ValidationError {
 
-    private ConstraintViolation violation;
+    // only the text of the violation is kept, as the violation itself references the validated bean and value
+    private final String message;
+    private final String messageTemplate;
 
     public HibernationError(String fieldName, String fieldLabel, ConstraintViolation violation) {
+        this(fieldName, fieldLabel, violation.getMessage(), violation.getMessageTemplate());
+    }
+
+    /**
+     * Creates a new instance from the text of a constraint violation.
+     *
+     * @param fieldName         the field name
+     * @param fieldLabel        the field label
+     * @param message           the interpolated message of the violation
+     * @param messageTemplate   the message template of the violated constraint
+     */
+    public HibernationError(String fieldName, String fieldLabel, String message, String messageTemplate) {
         super(fieldName, fieldLabel);
-        this.violation = violation;
+        this.message = message;
+        this.messageTemplate = messageTemplate;
+    }
+
+    /**
+     * Returns the message template of the violated constraint, such as {@code {javax.validation.constraints.NotNull.message}}.
+     *
+     * @return the message template
+     */
+    public String getMessageTemplate() {
+        return messageTemplate;
     }
 
     @Override
     public String getMessage(Resources resources) {
-        return violation.getMessage();
+        return message;
     }
 }
@@ -0,0 +1,26 @@
+package com.azavea.androidvalidatedforms.validations;
+
+import android.content.res.Resources;
+import com.azavea.androidvalidatedforms.R;
+
+/**
+ * Represents a validation error where the input of a field cannot be converted to the type of its model field, so it
+ * could not be set on the model.
+ */
+public class InvalidInputError extends ValidationError {
+
+    /**
+     * Creates a new instance with the specified field name.
+     *
+     * @param fieldName     the field name
+     * @param fieldLabel    the field label
+     */
+    public InvalidInputError(String fieldName, String fieldLabel) {
+        super(fieldName, fieldLabel);
+    }
+
+    @Override
+    public String getMessage(Resources resources) {
+        return String.format(resources.getString(R.string.invalid_input_error_msg), getFieldLabel());
+    }
+}
@@ -0,0 +1,31 @@
+package com.azavea.androidvalidatedforms.validations;
+
+import android.content.res.Resources;
+import com.azavea.androidvalidatedforms.R;
+
+/**
+ * Represents a validation error where a numeric input is outside the range allowed by its field.
+ */
+public class OutOfRangeError extends ValidationError {
+    private final Number min;
+    private final Number max;
+
+    /**
+     * Creates a new instance with the specified field name and range.
+     *
+     * @param fieldName     the field name
+     * @param fieldLabel    the field label
+     * @param min           the smallest allowed value
+     * @param max           the largest allowed value
+     */
+    public OutOfRangeError(String fieldName, String fieldLabel, Number min, Number max) {
+        super(fieldName, fieldLabel);
+        this.min = min;
+        this.max = max;
+    }
+
+    @Override
+    public String getMessage(Resources resources) {
+        return String.format(resources.getString(R.string.out_of_range_error_msg), getFieldLabel(), min, max);
+    }
+}
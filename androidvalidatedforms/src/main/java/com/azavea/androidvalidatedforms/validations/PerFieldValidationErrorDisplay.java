@@ -9,7 +9,7 @@ import com.azavea.androidvalidatedforms.controllers.FormSectionController;
 
 import java.util.List;
 
-public class PerFieldValidationErrorDisplay implements ValidationErrorDisplay {
+public class PerFieldValidationErrorDisplay implements SectionValidationErrorDisplay {
     private final Context context;
     private final FormController controller;
 
@@ -21,10 +21,8 @@ public class PerFieldValidationErrorDisplay implements ValidationErrorDisplay {
     @Override
     public void resetErrors() {
         for (FormSectionController section: controller.getSections()) {
-            for (FormElementController elementController: section.getElements()) {
-                elementController.setError(null);
-            }
-         }
+            section.resetErrors();
+        }
     }
 
     @Override
@@ -36,4 +34,22 @@ public class PerFieldValidationErrorDisplay implements ValidationErrorDisplay {
             element.setError(error.getMessage(res));
         }
     }
+
+    @Override
+    public void showSectionErrors(FormSectionController section, List<ValidationError> errors) {
+        Resources res = context.getResources();
+        FormElementController element;
+        for (ValidationError error : errors) {
+            // look the element up in its section only, rather than in every section of the form
+            element = section.getElement(error.getFieldName());
+            if (element != null) {
+                element.setError(error.getMessage(res));
+            }
+        }
+    }
+
+    @Override
+    public void resetSectionErrors(FormSectionController section) {
+        section.resetErrors();
+    }
 }
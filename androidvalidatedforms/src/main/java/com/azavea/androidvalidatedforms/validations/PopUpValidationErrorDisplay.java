@@ -4,11 +4,12 @@ import android.content.Context;
 import android.content.res.Resources;
 
 import com.azavea.androidvalidatedforms.R;
+import com.azavea.androidvalidatedforms.controllers.FormSectionController;
 import com.azavea.androidvalidatedforms.utils.MessageUtil;
 
 import java.util.List;
 
-public class PopUpValidationErrorDisplay implements ValidationErrorDisplay {
+public class PopUpValidationErrorDisplay implements SectionValidationErrorDisplay {
     private final Context context;
 
     public PopUpValidationErrorDisplay(Context context) {
@@ -29,4 +30,14 @@ public class PopUpValidationErrorDisplay implements ValidationErrorDisplay {
         }
         MessageUtil.showAlertMessage(context.getString(R.string.validation_error_title), sb.toString(), context);
     }
+
+    @Override
+    public void showSectionErrors(FormSectionController section, List<ValidationError> errors) {
+        showErrors(errors);
+    }
+
+    @Override
+    public void resetSectionErrors(FormSectionController section) {
+        // Do nothing, the popup can be dismissed
+    }
 }
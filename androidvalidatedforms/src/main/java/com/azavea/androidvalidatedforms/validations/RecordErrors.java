@@ -0,0 +1,41 @@
+package com.azavea.androidvalidatedforms.validations;
+
+import java.util.List;
+
+/**
+ * Summarizes the validation errors of a single record validated by {@link BulkValidator}. Only the position of the
+ * record and the field name, label and message of each error are kept, not the record itself.
+ */
+public class RecordErrors {
+    private final int recordIndex;
+    private final List<ValidationError> errors;
+
+    /**
+     * Creates a new summary of the errors for a record.
+     *
+     * @param recordIndex   the 0-based position of the record in the validated sequence
+     * @param errors        the validation errors found on the record
+     */
+    public RecordErrors(int recordIndex, List<ValidationError> errors) {
+        this.recordIndex = recordIndex;
+        this.errors = errors;
+    }
+
+    /**
+     * Returns the position of the record in the sequence that was validated.
+     *
+     * @return the 0-based position of the record
+     */
+    public int getRecordIndex() {
+        return recordIndex;
+    }
+
+    /**
+     * Returns the validation errors of the record.
+     *
+     * @return a non-empty list of validation errors
+     */
+    public List<ValidationError> getErrors() {
+        return errors;
+    }
+}
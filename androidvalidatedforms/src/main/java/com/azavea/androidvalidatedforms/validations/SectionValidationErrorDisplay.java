@@ -0,0 +1,25 @@
+package com.azavea.androidvalidatedforms.validations;
+
+import com.azavea.androidvalidatedforms.controllers.FormSectionController;
+
+import java.util.List;
+
+/**
+ * A {@link ValidationErrorDisplay} that can also display and dismiss the validation errors of a single section.
+ */
+public interface SectionValidationErrorDisplay extends ValidationErrorDisplay {
+    /**
+     * Display the validation errors of a section.
+     *
+     * @param section   the section the errors were found in
+     * @param errors    The errors to show.
+     */
+    void showSectionErrors(FormSectionController section, List<ValidationError> errors);
+
+    /**
+     * Dismiss the validation errors of a section.
+     *
+     * @param section   the section to dismiss the errors of
+     */
+    void resetSectionErrors(FormSectionController section);
+}
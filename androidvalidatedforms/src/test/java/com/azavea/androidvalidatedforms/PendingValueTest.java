@@ -0,0 +1,81 @@
+package com.azavea.androidvalidatedforms;
+
+import com.azavea.androidvalidatedforms.FormModelEnclosure.FormModel;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that values still pending on the main thread, such as the text of a long text field, are committed when
+ * they are read, so readers never see stale values.
+ */
+public class PendingValueTest {
+
+    public static class Model {
+        public String notes = "old notes";
+        public String description = "old description";
+    }
+
+    private Model model;
+    private FormObjectModel formModel;
+
+    @Before
+    public void createModel() {
+        model = new Model();
+        formModel = FormObjectModel.newInstance(model);
+    }
+
+    @Test
+    public void getValue_commitsOnlyThePendingValueOfItsField() {
+        formModel.setPendingValue("notes", new Pending("notes", "new notes"));
+        formModel.setPendingValue("description", new Pending("description", "new description"));
+
+        assertEquals("new notes", formModel.getValue("notes"));
+        assertEquals("old description", model.description);
+        assertEquals("new description", formModel.getValue("description"));
+    }
+
+    @Test
+    public void getBackingModelObject_commitsEveryPendingValue() {
+        formModel.setPendingValue("notes", new Pending("notes", "new notes"));
+        formModel.setPendingValue("description", new Pending("description", "new description"));
+
+        Model backing = (Model) formModel.getBackingModelObject();
+        assertEquals("new notes", backing.notes);
+        assertEquals("new description", backing.description);
+    }
+
+    @Test
+    public void committedValue_isOnlyCommittedOnce() {
+        Pending pending = new Pending("notes", "new notes");
+        formModel.setPendingValue("notes", pending);
+
+        formModel.getValue("notes");
+        formModel.getValue("notes");
+        formModel.getBackingModelObject();
+        assertEquals(1, pending.commits);
+    }
+
+    /**
+     * Sets its value when committed, reading the field back as an element committing its input does.
+     */
+    private class Pending implements FormModel.PendingValue {
+        private final String name;
+        private final String value;
+        int commits;
+
+        Pending(String name, String value) {
+            this.name = name;
+            this.value = value;
+        }
+
+        @Override
+        public void commit() {
+            commits++;
+            formModel.getValue(name);
+            formModel.setValue(name, value);
+        }
+    }
+}
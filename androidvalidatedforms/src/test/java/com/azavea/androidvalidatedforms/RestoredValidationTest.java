@@ -0,0 +1,129 @@
+package com.azavea.androidvalidatedforms;
+
+import android.view.View;
+
+import com.azavea.androidvalidatedforms.controllers.FormSectionController;
+import com.azavea.androidvalidatedforms.controllers.LabeledFieldController;
+import com.azavea.androidvalidatedforms.validations.ValidationError;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.validation.Constraint;
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+import javax.validation.Payload;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that a form recreated with the validation results of its previous instance, as after a configuration change
+ * or process restart, only runs the validator for the fields whose values changed.
+ */
+public class RestoredValidationTest {
+
+    private static final AtomicInteger validatorCalls = new AtomicInteger();
+
+    @Target(ElementType.FIELD)
+    @Retention(RetentionPolicy.RUNTIME)
+    @Constraint(validatedBy = CountedValidator.class)
+    public @interface Counted {
+        String message() default "is bad";
+        Class<?>[] groups() default {};
+        Class<? extends Payload>[] payload() default {};
+    }
+
+    public static class CountedValidator implements ConstraintValidator<Counted, String> {
+        @Override
+        public void initialize(Counted constraint) {
+        }
+
+        @Override
+        public boolean isValid(String value, ConstraintValidatorContext context) {
+            validatorCalls.incrementAndGet();
+            return !"bad".equals(value);
+        }
+    }
+
+    public static class Model {
+        @Counted public String name1 = "a";
+        @Counted public String name2 = "b";
+        @Counted public String name3 = "c";
+        @Counted public String name4 = "d";
+    }
+
+    private static class Field extends LabeledFieldController {
+        Field(String name) {
+            super(null, name, name, true);
+        }
+
+        @Override
+        protected View createFieldView() {
+            return null;
+        }
+
+        @Override
+        public void refresh() {
+        }
+    }
+
+    private FormController previous;
+
+    @Before
+    public void validatePreviousForm() {
+        previous = createForm(new Model());
+        assertTrue(previous.validateInput().isEmpty());
+        validatorCalls.set(0);
+    }
+
+    @Test
+    public void restoredForm_withSameValues_runsNoValidator() {
+        FormController form = createForm(new Model());
+        form.getModel().copyValidationResults(previous.getModel());
+
+        assertTrue(form.validateInput().isEmpty());
+        assertTrue(form.isValidInput());
+        assertEquals(0, validatorCalls.get());
+    }
+
+    @Test
+    public void restoredForm_validatesOnlyChangedValues() {
+        Model model = new Model();
+        model.name2 = "bad";
+        FormController form = createForm(model);
+        form.getModel().copyValidationResults(previous.getModel());
+
+        List<ValidationError> errors = form.validateInput();
+        assertEquals(1, errors.size());
+        assertEquals("name2", errors.get(0).getFieldName());
+        assertEquals(1, validatorCalls.get());
+    }
+
+    @Test
+    public void newForm_validatesEveryField() {
+        FormController form = createForm(new Model());
+
+        assertTrue(form.validateInput().isEmpty());
+        assertEquals(4, validatorCalls.get());
+    }
+
+    private static FormController createForm(Model model) {
+        FormController form = new FormController(null, model);
+        FormSectionController section = new FormSectionController(null, "section", "Section");
+        form.addSection(section);
+        ((FormElementController) section).setModel(form.getModel());
+        for (int i = 1; i <= 4; i++) {
+            Field field = new Field("name" + i);
+            section.addElement(field);
+            ((FormElementController) field).setModel(form.getModel());
+        }
+        return form;
+    }
+}
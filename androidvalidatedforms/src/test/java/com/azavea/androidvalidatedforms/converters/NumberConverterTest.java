@@ -0,0 +1,125 @@
+package com.azavea.androidvalidatedforms.converters;
+
+import com.azavea.androidvalidatedforms.utils.NumberParser;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the converters of primitive number fields parse text straight from the text field, without creating a
+ * {@code String}, and without allocating at all once warmed up.
+ */
+public class NumberConverterTest {
+
+    private final NumberParser parser = new NumberParser();
+
+    @Test
+    public void numberTypes_haveNumberConverters() {
+        Class<?>[] types = {int.class, long.class, short.class, double.class, float.class,
+                Integer.class, Long.class, Short.class, Double.class, Float.class};
+        for (Class<?> type : types) {
+            assertTrue(type.getName(), ValueConverters.forType(type) instanceof NumberConverter);
+        }
+        assertFalse(ValueConverters.forType(String.class) instanceof NumberConverter);
+    }
+
+    @Test
+    public void parse_readsTextWithoutCreatingString() {
+        assertTrue(converter(int.class).parse(new NoStringText("-2147483648"), parser));
+        assertEquals(Integer.MIN_VALUE, parser.getLong());
+        assertFalse(converter(int.class).parse(new NoStringText("2147483648"), parser));
+
+        assertTrue(converter(long.class).parse(new NoStringText("2147483648"), parser));
+        assertEquals(2147483648L, parser.getLong());
+
+        assertTrue(converter(double.class).parse(new NoStringText("-12.75"), parser));
+        assertEquals(-12.75, parser.getDouble(), 0);
+
+        assertFalse(converter(int.class).parse(new NoStringText(""), parser));
+        assertFalse(converter(int.class).parse(new NoStringText("-"), parser));
+        assertFalse(converter(double.class).parse(new NoStringText("1.2.3"), parser));
+    }
+
+    @Test
+    public void matches_readsTextWithoutCreatingString() {
+        assertTrue(converter(int.class).matches(new NoStringText("42"), 42));
+        assertFalse(converter(int.class).matches(new NoStringText("42"), 42L));
+        assertTrue(converter(long.class).matches(new NoStringText("42"), 42L));
+        assertTrue(converter(double.class).matches(new NoStringText("4.5"), 4.5));
+    }
+
+    @Test
+    public void parse_doesNotAllocate() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        Assume.assumeTrue(allocations.isThreadAllocatedMemorySupported());
+        allocations.setThreadAllocatedMemoryEnabled(true);
+
+        NumberConverter<?> intConverter = converter(int.class);
+        NumberConverter<?> doubleConverter = converter(double.class);
+        CharSequence intText = new StringBuilder("-1234567");
+        CharSequence doubleText = new StringBuilder("1234.5678");
+        int iterations = 100000;
+        long sum = 0;
+        for (int i = 0; i < iterations; i++) {
+            // warm up, so that the measured loop runs compiled code
+            intConverter.parse(intText, parser);
+            doubleConverter.parse(doubleText, parser);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = allocations.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            intConverter.parse(intText, parser);
+            sum += parser.getLong();
+            doubleConverter.parse(doubleText, parser);
+            sum += (long) parser.getDouble();
+        }
+        long allocated = allocations.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals(iterations * (-1234567L + 1234L), sum);
+        // allow for the odd allocation by the JVM itself, far below a String or boxed number per parse
+        assertTrue("allocated " + allocated + " bytes", allocated < iterations);
+    }
+
+    private static NumberConverter<?> converter(Class<?> type) {
+        return (NumberConverter<?>) ValueConverters.forType(type);
+    }
+
+    /**
+     * Text that fails when converted to a String, as a converter reading the text of a field must not.
+     */
+    private static class NoStringText implements CharSequence {
+        private final String text;
+
+        NoStringText(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public int length() {
+            return text.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return text.charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            throw new AssertionError("subSequence called");
+        }
+
+        @Override
+        public String toString() {
+            throw new AssertionError("toString called");
+        }
+    }
+}
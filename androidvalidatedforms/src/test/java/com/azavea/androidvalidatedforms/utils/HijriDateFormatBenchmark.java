@@ -0,0 +1,83 @@
+package com.azavea.androidvalidatedforms.utils;
+
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+/**
+ * Times formatting a list of Hijri dates with {@link DateFormatCache.SharedDateFormat}, which uses
+ * {@link UmmalquraTable}, against a {@link SimpleDateFormat} computing each date with the Umm al-Qura calendar.
+ * Prints the time per date; only the results are checked, as timings depend on the machine.
+ */
+public class HijriDateFormatBenchmark {
+
+    private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000;
+    private static final String PATTERN = "EEEE d MMMM yyyy";
+    private static final int DAYS = 3650;
+    private static final int WARM_UP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+
+    @Test
+    public void formatDates() {
+        TimeZone timeZone = TimeZone.getTimeZone("GMT+03:00");
+        long[] times = new long[DAYS];
+        // a date per day from January 1, 2010
+        for (int i = 0; i < DAYS; i++) {
+            times[i] = (14610 + i) * MILLIS_PER_DAY;
+        }
+
+        SimpleDateFormat calendarFormat = new SimpleDateFormat(PATTERN, Locale.US);
+        calendarFormat.setTimeZone(timeZone);
+        DateFormatCache.applyHijri(calendarFormat, Locale.US);
+        DateFormatCache.SharedDateFormat tableFormat = DateFormatCache.get(PATTERN, Locale.US, timeZone, true);
+
+        for (long time : times) {
+            assertEquals(calendarFormat.format(new Date(time)), tableFormat.format(time));
+        }
+
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            formatWithCalendar(calendarFormat, times);
+            formatWithTable(tableFormat, times);
+        }
+
+        long calendarNanos = 0;
+        long tableNanos = 0;
+        int checksum = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            checksum += formatWithCalendar(calendarFormat, times);
+            calendarNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            checksum -= formatWithTable(tableFormat, times);
+            tableNanos += System.nanoTime() - start;
+        }
+        assertEquals(0, checksum);
+
+        System.out.println(String.format(Locale.US, "Hijri formatting, ns per date: calendar %d, table %d",
+                calendarNanos / ((long) ROUNDS * DAYS), tableNanos / ((long) ROUNDS * DAYS)));
+    }
+
+    private static int formatWithCalendar(SimpleDateFormat format, long[] times) {
+        int length = 0;
+        Date date = new Date();
+        for (long time : times) {
+            date.setTime(time);
+            length += format.format(date).length();
+        }
+        return length;
+    }
+
+    private static int formatWithTable(DateFormatCache.SharedDateFormat format, long[] times) {
+        int length = 0;
+        for (long time : times) {
+            length += format.format(time).length();
+        }
+        return length;
+    }
+}
@@ -0,0 +1,141 @@
+package com.azavea.androidvalidatedforms.utils;
+
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that {@link HijriDateFormat} formats the same text as a {@link SimpleDateFormat} set up by
+ * {@link DateFormatCache#applyHijri}, and only compiles the patterns and locales it handles.
+ */
+public class HijriDateFormatTest {
+
+    private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000;
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    // October 14, 2015, a Wednesday and the first day of 1437
+    private static final long NEW_YEAR_1437 = 16722 * MILLIS_PER_DAY;
+
+    private final UmmalquraTable.HijriDate date = new UmmalquraTable.HijriDate();
+
+    @Test
+    public void compile_rejectsUnhandledFields() {
+        assertNull(HijriDateFormat.compile("HH:mm", Locale.US));
+        assertNull(HijriDateFormat.compile("d/M/y a", Locale.US));
+        assertNull(HijriDateFormat.compile("G y", Locale.US));
+        assertNull(HijriDateFormat.compile("D", Locale.US));
+    }
+
+    @Test
+    public void compile_rejectsUnterminatedQuote() {
+        assertNull(HijriDateFormat.compile("d 'of", Locale.US));
+        assertNull(HijriDateFormat.compile("d 'it''s", Locale.US));
+        assertNull(HijriDateFormat.compile("'", Locale.US));
+    }
+
+    @Test
+    public void compile_rejectsLocaleWithoutAsciiDigits() {
+        assertNull(HijriDateFormat.compile("d/M/y", new Locale("th", "TH", "TH")));
+    }
+
+    @Test
+    public void compile_acceptsLettersInQuotes() {
+        assertNotNull(HijriDateFormat.compile("'HH:mm' d", Locale.US));
+    }
+
+    @Test
+    public void format_numericFields() {
+        assertEquals("01/01/1437", format("dd/MM/yyyy", NEW_YEAR_1437));
+        assertEquals("1/1/1437", format("d/M/y", NEW_YEAR_1437));
+        assertEquals("1/1/37", format("d/M/yy", NEW_YEAR_1437));
+        assertEquals("001 01437", format("ddd yyyyy", NEW_YEAR_1437));
+        assertEquals("30/12/1436", format("d/M/y", NEW_YEAR_1437 - 1));
+    }
+
+    @Test
+    public void format_escapesQuotes() {
+        assertEquals("'1'", format("''d''", NEW_YEAR_1437));
+        assertEquals("it's 1", format("'it''s' d", NEW_YEAR_1437));
+        assertEquals("1 o'clock", format("d 'o''clock'", NEW_YEAR_1437));
+        assertEquals("''", format("''''", NEW_YEAR_1437));
+        assertEquals("HH:mm 1", format("'HH:mm' d", NEW_YEAR_1437));
+        assertEquals("d1", format("'d'd", NEW_YEAR_1437));
+        assertEquals("1.1.1437", format("d.M.y", NEW_YEAR_1437));
+    }
+
+    @Test
+    public void format_usesTimeZone() {
+        TimeZone east = TimeZone.getTimeZone("GMT+03:00");
+        StringBuilder out = new StringBuilder();
+        HijriDateFormat format = HijriDateFormat.compile("d/M/y", Locale.US);
+        assertTrue(format.format(NEW_YEAR_1437 - 2 * 60 * 60 * 1000, east, date, out));
+        assertEquals("1/1/1437", out.toString());
+        assertEquals("30/12/1436", format("d/M/y", NEW_YEAR_1437 - 2 * 60 * 60 * 1000));
+    }
+
+    @Test
+    public void format_beforeEpoch() {
+        // December 31, 1969
+        assertEquals("21/10/1389", format("d/M/y", -1));
+        assertEquals("22/10/1389", format("d/M/y", 0));
+    }
+
+    @Test
+    public void format_failsOutsideTable() {
+        long beforeTable = (UmmalquraTable.toEpochDay(UmmalquraTable.MIN_YEAR, 0, 1) - 1) * MILLIS_PER_DAY;
+        StringBuilder out = new StringBuilder();
+        assertFalse(HijriDateFormat.compile("d/M/y", Locale.US).format(beforeTable, UTC, date, out));
+        assertEquals(0, out.length());
+    }
+
+    @Test
+    public void format_matchesSimpleDateFormat() {
+        String[] patterns = {"d/M/y", "dd/MM/yyyy", "d MMM yy", "EEEE d MMMM y", "EEE, d 'of' MMMM", "y-MM-dd"};
+        Locale[] locales = {Locale.US, Locale.FRANCE};
+        long first = UmmalquraTable.toEpochDay(UmmalquraTable.MIN_YEAR, 0, 1);
+        long last = UmmalquraTable.toEpochDay(UmmalquraTable.MAX_YEAR, 11, 1);
+
+        for (Locale locale : locales) {
+            for (String pattern : patterns) {
+                HijriDateFormat hijriFormat = HijriDateFormat.compile(pattern, locale);
+                assertNotNull(pattern, hijriFormat);
+                SimpleDateFormat dateFormat = newHijriSimpleDateFormat(pattern, locale, UTC);
+
+                for (long day = first; day <= last; day += 11) {
+                    long millis = day * MILLIS_PER_DAY + 12 * 60 * 60 * 1000;
+                    StringBuilder out = new StringBuilder();
+                    assertTrue(hijriFormat.format(millis, UTC, date, out));
+                    assertEquals(pattern + " on day " + day, dateFormat.format(new Date(millis)), out.toString());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void sharedFormat_fallsBackOutsideTable() {
+        DateFormatCache.SharedDateFormat shared = DateFormatCache.get("d/M/y", Locale.US, UTC, true);
+        SimpleDateFormat dateFormat = newHijriSimpleDateFormat("d/M/y", Locale.US, UTC);
+
+        long beforeTable = (UmmalquraTable.toEpochDay(UmmalquraTable.MIN_YEAR, 0, 1) - 1) * MILLIS_PER_DAY;
+        assertEquals(dateFormat.format(new Date(beforeTable)), shared.format(beforeTable));
+        assertEquals(dateFormat.format(new Date(NEW_YEAR_1437)), shared.format(NEW_YEAR_1437));
+    }
+
+    private String format(String pattern, long millis) {
+        StringBuilder out = new StringBuilder();
+        assertTrue(HijriDateFormat.compile(pattern, Locale.US).format(millis, UTC, date, out));
+        return out.toString();
+    }
+
+    private static SimpleDateFormat newHijriSimpleDateFormat(String pattern, Locale locale, TimeZone timeZone) {
+        SimpleDateFormat dateFormat = new SimpleDateFormat(pattern, locale);
+        dateFormat.setTimeZone(timeZone);
+        DateFormatCache.applyHijri(dateFormat, locale);
+        return dateFormat;
+    }
+}
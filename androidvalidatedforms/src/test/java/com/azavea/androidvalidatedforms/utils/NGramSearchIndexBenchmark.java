@@ -0,0 +1,103 @@
+package com.azavea.androidvalidatedforms.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Times substring and fuzzy searches of {@link NGramSearchIndex} over 100,000 items, against lowercasing and
+ * scanning every item for each query. Prints the time per query; only the results are checked, as timings depend on
+ * the machine.
+ */
+public class NGramSearchIndexBenchmark {
+
+    private static final int ITEMS = 100000;
+    private static final int QUERIES = 200;
+    private static final int MAX_RESULTS = 100;
+    private static final String[] SYLLABLES = {
+            "ac", "er", "ru", "br", "um", "qu", "ea", "al", "ba", "pi", "nu", "sy", "lv", "es", "tr", "is", "ma", "pl"
+    };
+
+    @Test
+    public void search() {
+        Random random = new Random(42);
+        List<String> items = new ArrayList<>(ITEMS);
+        for (int i = 0; i < ITEMS; i++) {
+            // two or three words, like species names
+            StringBuilder item = new StringBuilder(randomWord(random));
+            item.setCharAt(0, Character.toUpperCase(item.charAt(0)));
+            for (int words = 1 + random.nextInt(2); words > 0; words--) {
+                item.append(' ').append(randomWord(random));
+            }
+            items.add(item.toString());
+        }
+
+        String[] queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            // part of an item, as a user would type
+            String item = items.get(random.nextInt(ITEMS)).toLowerCase(Locale.US);
+            int start = random.nextInt(item.length() - 3);
+            queries[i] = item.substring(start, start + 3 + random.nextInt(Math.min(6, item.length() - start - 2)));
+        }
+
+        long start = System.nanoTime();
+        NGramSearchIndex index = new NGramSearchIndex(items, Locale.US);
+        long buildNanos = System.nanoTime() - start;
+        NGramSearchIndex.Searcher searcher = index.newSearcher();
+        int[] results = new int[MAX_RESULTS];
+
+        // every query is found by both searches, and the scan agrees on the number of matches
+        for (String query : queries) {
+            int count = searcher.searchSubstring(query, MAX_RESULTS, results);
+            assertTrue(query, count > 0);
+            assertEquals(query, Math.min(scan(items, query), MAX_RESULTS), count);
+            assertTrue(query, searcher.searchFuzzy(query, MAX_RESULTS, results) > 0);
+        }
+
+        long substringNanos = 0;
+        long fuzzyNanos = 0;
+        long scanNanos = 0;
+        for (String query : queries) {
+            start = System.nanoTime();
+            searcher.searchSubstring(query, MAX_RESULTS, results);
+            substringNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            searcher.searchFuzzy(query, MAX_RESULTS, results);
+            fuzzyNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            scan(items, query);
+            scanNanos += System.nanoTime() - start;
+        }
+
+        System.out.println(String.format(Locale.US,
+                "N-gram search of %d items: build %d ms; us per query: substring %d, fuzzy %d, scan %d",
+                ITEMS, buildNanos / 1000000, substringNanos / QUERIES / 1000, fuzzyNanos / QUERIES / 1000,
+                scanNanos / QUERIES / 1000));
+    }
+
+    // lowercases every item and counts the ones containing the query
+    private static int scan(List<String> items, String query) {
+        int count = 0;
+        for (String item : items) {
+            if (item.toLowerCase(Locale.getDefault()).contains(query)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 2 + random.nextInt(3); i > 0; i--) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,216 @@
+package com.azavea.androidvalidatedforms.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the matches and ranking of {@link NGramSearchIndex}, and the similarity a fuzzy match needs.
+ */
+public class NGramSearchIndexTest {
+
+    private static final List<String> ITEMS = Arrays.asList(
+            "Red maple", "Maple", "Sugar maple tree", "Norway maple", "Amaple", "Acer rubrum", "Quercus rubra");
+
+    private final NGramSearchIndex index = new NGramSearchIndex(ITEMS, Locale.US);
+    private final NGramSearchIndex.Searcher searcher = index.newSearcher();
+
+    @Test
+    public void substring_findsTextWithinItems() {
+        assertArrayEquals(new int[]{5}, searchSubstring("rubrum", 10));
+        assertArrayEquals(new int[]{5, 6}, searchSubstring("rubr", 10));
+        assertArrayEquals(new int[0], searchSubstring("rubrun", 10));
+    }
+
+    @Test
+    public void substring_ignoresCase() {
+        assertArrayEquals(searchSubstring("maple", 10), searchSubstring("MAPLE", 10));
+    }
+
+    @Test
+    public void substring_ranksPrefixThenWordStartThenOtherMatches() {
+        // a word starting with the query ranks by length, then by position; a match within a word ranks last
+        assertArrayEquals(new int[]{1, 0, 3, 2, 4}, searchSubstring("maple", 10));
+        // queries too short for a trigram are ranked the same
+        assertArrayEquals(new int[]{1, 0, 3, 2, 4}, searchSubstring("ma", 10));
+    }
+
+    @Test
+    public void substring_keepsBestResults() {
+        assertArrayEquals(new int[]{1, 0}, searchSubstring("maple", 2));
+        assertArrayEquals(new int[]{1}, searchSubstring("ma", 1));
+    }
+
+    @Test
+    public void emptyQueryOrNoResults_findsNothing() {
+        assertArrayEquals(new int[0], searchSubstring("", 10));
+        assertArrayEquals(new int[0], searchSubstring("maple", 0));
+        assertArrayEquals(new int[0], searchFuzzy("", 10));
+        assertArrayEquals(new int[0], searchFuzzy("maple", 0));
+        assertArrayEquals(new int[0], searchSubstring("zzz", 10));
+    }
+
+    @Test
+    public void emptyIndex_findsNothing() {
+        NGramSearchIndex empty = new NGramSearchIndex(Collections.<String>emptyList(), Locale.US);
+        int[] results = new int[10];
+        assertEquals(0, empty.size());
+        assertEquals(0, empty.newSearcher().searchSubstring("maple", 10, results));
+        assertEquals(0, empty.newSearcher().searchFuzzy("maple", 10, results));
+    }
+
+    @Test
+    public void fuzzy_findsMisspelledText() {
+        // both share " ru", "rub", "ubr" and "bru" with the query; the shorter ranks first
+        assertArrayEquals(new int[]{5, 6}, searchFuzzy("rubrun", 10));
+        assertArrayEquals(new int[0], searchSubstring("rubrun", 10));
+    }
+
+    @Test
+    public void fuzzy_findsItemsContainingQuery() {
+        // the item has "m p" but neither of the query's padded trigrams, " m " and " p "
+        NGramSearchIndex fuzzyIndex = new NGramSearchIndex(Arrays.asList("Acer rubrum pendula"), Locale.US);
+        NGramSearchIndex.Searcher fuzzySearcher = fuzzyIndex.newSearcher();
+        int[] results = new int[1];
+        assertEquals(1, fuzzySearcher.searchFuzzy("m p", 1, results));
+        // queries too short for a trigram match within words too
+        assertEquals(1, fuzzySearcher.searchFuzzy("ub", 1, results));
+        assertEquals(1, fuzzySearcher.searchFuzzy("d", 1, results));
+    }
+
+    @Test
+    public void fuzzy_ranksContainingItemsFirst() {
+        NGramSearchIndex fuzzyIndex = new NGramSearchIndex(Arrays.asList("mapl", "a maple tree", "maples"), Locale.US);
+        int[] results = new int[3];
+        // "mapl" only shares " ma", "map" and "apl" with the query, so ranks after the longer items containing it
+        assertEquals(3, fuzzyIndex.newSearcher().searchFuzzy("maple", 3, results));
+        assertArrayEquals(new int[]{2, 1, 0}, results);
+    }
+
+    @Test
+    public void fuzzy_needsHalfOfQueryTrigrams() {
+        NGramSearchIndex fuzzyIndex = new NGramSearchIndex(Arrays.asList("abcdef"), Locale.US);
+        NGramSearchIndex.Searcher fuzzySearcher = fuzzyIndex.newSearcher();
+        int[] results = new int[1];
+
+        // " ab", "abc", "bcd" of the query's six trigrams are in the item
+        assertEquals(1, fuzzySearcher.searchFuzzy("abcdxy", 1, results));
+        // only " ab" and "abc" are
+        assertEquals(0, fuzzySearcher.searchFuzzy("abcxyz", 1, results));
+        // a two letter query has two padded trigrams, " ab" and "ab ", and needs one
+        assertEquals(1, fuzzySearcher.searchFuzzy("ab", 1, results));
+        assertEquals(0, fuzzySearcher.searchFuzzy("xy", 1, results));
+    }
+
+    @Test
+    public void fuzzy_ranksByNumberOfSharedTrigrams() {
+        NGramSearchIndex fuzzyIndex = new NGramSearchIndex(Arrays.asList("abcdxx", "abcdex"), Locale.US);
+        int[] results = new int[2];
+        // the query "abcdef" shares " ab", "abc", "bcd" with the first item, and also "cde" with the second
+        assertEquals(2, fuzzyIndex.newSearcher().searchFuzzy("abcdef", 2, results));
+        assertArrayEquals(new int[]{1, 0}, results);
+    }
+
+    @Test
+    public void searcher_canBeReused() {
+        int[] first = searchFuzzy("rubrun", 10);
+        searchSubstring("maple", 10);
+        searchFuzzy("quercus", 10);
+        assertArrayEquals(first, searchFuzzy("rubrun", 10));
+    }
+
+    @Test
+    public void substring_matchesRankedScan() {
+        Random random = new Random(42);
+        final List<String> items = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            items.add(randomWords(random));
+        }
+        NGramSearchIndex randomIndex = new NGramSearchIndex(items, Locale.US);
+        NGramSearchIndex.Searcher randomSearcher = randomIndex.newSearcher();
+        int[] results = new int[50];
+        int[] fuzzyResults = new int[50];
+
+        for (int i = 0; i < 1000; i++) {
+            final String query = randomIndex.normalize(randomWord(random, 1 + random.nextInt(5)));
+            int maxResults = 1 + random.nextInt(50);
+
+            List<Integer> expected = new ArrayList<>();
+            for (int j = 0; j < items.size(); j++) {
+                if (items.get(j).toLowerCase(Locale.US).contains(query)) {
+                    expected.add(j);
+                }
+            }
+            Collections.sort(expected, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer a, Integer b) {
+                    int result = scanScore(items.get(b), query) - scanScore(items.get(a), query);
+                    if (result == 0) {
+                        result = items.get(a).length() - items.get(b).length();
+                    }
+                    return result != 0 ? result : a - b;
+                }
+            });
+
+            int count = randomSearcher.searchSubstring(query, maxResults, results);
+            assertEquals(query, Math.min(maxResults, expected.size()), count);
+            for (int j = 0; j < count; j++) {
+                assertEquals(query, (int) expected.get(j), results[j]);
+            }
+
+            // fuzzy results start with the items containing the query
+            int fuzzyCount = randomSearcher.searchFuzzy(query, maxResults, fuzzyResults);
+            assertTrue(query, fuzzyCount >= count);
+            for (int j = 0; j < count; j++) {
+                assertEquals(query, results[j], fuzzyResults[j]);
+            }
+        }
+    }
+
+    // 2 for a prefix, 1 for a word start and 0 for another match, at the first match in the item
+    private static int scanScore(String item, String query) {
+        String key = item.toLowerCase(Locale.US);
+        int matchIndex = key.indexOf(query);
+        if (matchIndex == 0) {
+            return 2;
+        }
+        return Character.isLetterOrDigit(key.charAt(matchIndex - 1)) ? 0 : 1;
+    }
+
+    private int[] searchSubstring(String query, int maxResults) {
+        int[] results = new int[Math.max(maxResults, 0)];
+        int count = searcher.searchSubstring(index.normalize(query), maxResults, results);
+        return Arrays.copyOf(results, count);
+    }
+
+    private int[] searchFuzzy(String query, int maxResults) {
+        int[] results = new int[Math.max(maxResults, 0)];
+        int count = searcher.searchFuzzy(index.normalize(query), maxResults, results);
+        return Arrays.copyOf(results, count);
+    }
+
+    private static String randomWords(Random random) {
+        StringBuilder words = new StringBuilder(randomWord(random, 1 + random.nextInt(8)));
+        for (int i = random.nextInt(3); i > 0; i--) {
+            words.append(' ').append(randomWord(random, 1 + random.nextInt(8)));
+        }
+        return words.toString();
+    }
+
+    private static String randomWord(Random random, int length) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            char c = random.nextInt(6) == 0 ? ' ' : (char) ('a' + random.nextInt(4));
+            word.append(random.nextBoolean() ? Character.toUpperCase(c) : c);
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,156 @@
+package com.azavea.androidvalidatedforms.utils;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that {@link NumberParser} accepts the same input as {@link Long#parseLong(String)} and
+ * {@link Double#parseDouble(String)}, and rounds the same, on either side of the limits of its fast path.
+ */
+public class NumberParserTest {
+
+    private final NumberParser parser = new NumberParser();
+
+    @Test
+    public void parseLong_acceptsFullRange() {
+        assertTrue(parser.parseLong("9223372036854775807", Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(Long.MAX_VALUE, parser.getLong());
+        assertTrue(parser.parseLong("-9223372036854775808", Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(Long.MIN_VALUE, parser.getLong());
+        assertTrue(parser.parseLong("+42", Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(42, parser.getLong());
+        assertTrue(parser.parseLong("-0", Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(0, parser.getLong());
+    }
+
+    @Test
+    public void parseLong_rejectsOverflow() {
+        assertFalse(parser.parseLong("9223372036854775808", Long.MIN_VALUE, Long.MAX_VALUE));
+        assertFalse(parser.parseLong("-9223372036854775809", Long.MIN_VALUE, Long.MAX_VALUE));
+        assertFalse(parser.parseLong("99999999999999999999", Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void parseLong_checksRange() {
+        assertTrue(parser.parseLong("2147483647", Integer.MIN_VALUE, Integer.MAX_VALUE));
+        assertFalse(parser.parseLong("2147483648", Integer.MIN_VALUE, Integer.MAX_VALUE));
+        assertTrue(parser.parseLong("-2147483648", Integer.MIN_VALUE, Integer.MAX_VALUE));
+        assertFalse(parser.parseLong("-2147483649", Integer.MIN_VALUE, Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void parseLong_rejectsWhatParseLongRejects() {
+        String[] invalid = {"", "-", "+", "1a", "1.0", " 1", "1 ", "--1", "+-1", "1e3", "0x10"};
+        for (String text : invalid) {
+            assertFalse(text, parser.parseLong(text, Long.MIN_VALUE, Long.MAX_VALUE));
+            try {
+                Long.parseLong(text);
+                fail("Long.parseLong accepted " + text);
+            } catch (NumberFormatException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void parseLong_keepsLastValueOnFailure() {
+        assertTrue(parser.parseLong("7", Long.MIN_VALUE, Long.MAX_VALUE));
+        assertFalse(parser.parseLong("x", Long.MIN_VALUE, Long.MAX_VALUE));
+        assertEquals(7, parser.getLong());
+    }
+
+    @Test
+    public void parseDouble_matchesAtFastPathLimits() {
+        String[] texts = {
+                // largest mantissa a double holds exactly, and the first ones past it
+                "9007199254740991", "9007199254740992", "9007199254740993", "9007199254740995",
+                // largest power of ten a double holds exactly, and the first one past it
+                "1e22", "1e23", "1e-22", "1e-23", "9007199254740991e22", "9007199254740991e-22",
+                "123456789012345678901234567890", "0.1", "0.3", "2.2250738585072014E-308", "4.9e-324",
+                "1.7976931348623157e308", "1e309", "1e-400", "-0", "-0.0", "+1.5", ".5", "5.", "1E5", "1e+5",
+                "000000000000000000000000001", "0.000000000000000000000000001"
+        };
+        for (String text : texts) {
+            assertDoubleMatches(text);
+        }
+    }
+
+    @Test
+    public void parseDouble_fallsBackForOtherNotations() {
+        String[] texts = {"NaN", "-Infinity", "0x1p3", "1d", "2.5f", " 1", "1 "};
+        for (String text : texts) {
+            assertDoubleMatches(text);
+        }
+    }
+
+    @Test
+    public void parseDouble_rejectsWhatParseDoubleRejects() {
+        String[] invalid = {"", ".", "-", "+", "e5", "1e", "1e+", "1..2", "1.2.3", "--1", "1-", "abc", "1,5"};
+        for (String text : invalid) {
+            assertFalse(text, parser.parseDouble(text));
+            try {
+                Double.parseDouble(text);
+                fail("Double.parseDouble accepted " + text);
+            } catch (NumberFormatException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void parseDouble_matchesRandomDecimals() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            // mantissas and exponents on either side of the fast path limits
+            long mantissa = random.nextLong() >>> (random.nextInt(64));
+            int exponent = random.nextInt(60) - 30;
+            assertDoubleMatches(mantissa + "e" + exponent);
+
+            double value = Double.longBitsToDouble(random.nextLong());
+            if (!Double.isNaN(value)) {
+                assertDoubleMatches(Double.toString(value));
+            }
+        }
+    }
+
+    @Test
+    public void parseFloat_matchesAtFastPathLimits() {
+        String[] texts = {
+                "16777215", "16777216", "16777217", "16777219", "1e10", "1e11", "1e-10", "1e-11",
+                "16777215e10", "16777215e-10", "0.1", "3.4028235e38", "3.5e38", "1.4e-45", "1e-50", "-0", ".5"
+        };
+        for (String text : texts) {
+            assertFloatMatches(text);
+        }
+    }
+
+    @Test
+    public void parseFloat_matchesRandomDecimals() {
+        Random random = new Random(7);
+        for (int i = 0; i < 100000; i++) {
+            long mantissa = random.nextLong() >>> (random.nextInt(64));
+            int exponent = random.nextInt(30) - 15;
+            assertFloatMatches(mantissa + "e" + exponent);
+
+            float value = Float.intBitsToFloat(random.nextInt());
+            if (!Float.isNaN(value)) {
+                assertFloatMatches(Float.toString(value));
+            }
+        }
+    }
+
+    private void assertDoubleMatches(String text) {
+        assertTrue(text, parser.parseDouble(text));
+        // compare the bits, so that -0.0 and 0.0 differ
+        assertEquals(text, Double.doubleToLongBits(Double.parseDouble(text)),
+                Double.doubleToLongBits(parser.getDouble()));
+    }
+
+    private void assertFloatMatches(String text) {
+        assertTrue(text, parser.parseFloat(text));
+        assertEquals(text, Float.floatToIntBits(Float.parseFloat(text)), Float.floatToIntBits(parser.getFloat()));
+    }
+}
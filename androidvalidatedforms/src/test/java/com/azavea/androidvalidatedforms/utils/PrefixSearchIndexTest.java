@@ -0,0 +1,172 @@
+package com.azavea.androidvalidatedforms.utils;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the ranges found by {@link PrefixSearchIndex} hold exactly the items starting with a prefix, ignoring
+ * case, in the order of their keys.
+ */
+public class PrefixSearchIndexTest {
+
+    private static final List<String> ITEMS = Arrays.asList(
+            "Acer rubrum", "Quercus alba", "acer saccharum", "Abies alba", "Quercus rubra", "Acer", "Betula nigra",
+            "ACER NEGUNDO", "Quercus alba");
+
+    private final PrefixSearchIndex index = new PrefixSearchIndex(ITEMS, Locale.US);
+
+    @Test
+    public void emptyPrefix_matchesEverything() {
+        int start = index.start("");
+        assertEquals(0, start);
+        assertEquals(ITEMS.size(), index.end("", start));
+        assertArrayEquals(new int[]{3, 5, 7, 0, 2, 6, 1, 8, 4}, itemIndices(index, start, ITEMS.size()));
+    }
+
+    @Test
+    public void emptyIndex_hasEmptyRanges() {
+        PrefixSearchIndex empty = new PrefixSearchIndex(Collections.<String>emptyList(), Locale.US);
+        assertEquals(0, empty.size());
+        assertEquals(0, empty.start(""));
+        assertEquals(0, empty.end("", 0));
+        assertEquals(0, empty.start("a"));
+        assertEquals(0, empty.end("a", 0));
+        assertEquals(0, itemIndices(empty, 0, 0).length);
+    }
+
+    @Test
+    public void prefix_ignoresCase() {
+        assertArrayEquals(new int[]{5, 7, 0, 2}, find("ACER"));
+        assertArrayEquals(new int[]{5, 7, 0, 2}, find("acer"));
+        assertArrayEquals(new int[]{0}, find("Acer R"));
+    }
+
+    @Test
+    public void prefix_matchesWholeItem() {
+        assertArrayEquals(new int[]{5}, findExactly("acer"));
+        assertArrayEquals(new int[]{0}, find("acer rubrum"));
+        assertArrayEquals(new int[0], find("acer rubrum var"));
+    }
+
+    @Test
+    public void prefix_withoutMatches_hasEmptyRange() {
+        // before every item, between items, and after every item
+        assertEmptyRange("a ", 0);
+        assertEmptyRange("aa", 0);
+        assertEmptyRange("c", index.start("quercus"));
+        assertEmptyRange("zz", ITEMS.size());
+        assertEmptyRange("\uffff", ITEMS.size());
+    }
+
+    @Test
+    public void equalItems_keepListOrder() {
+        int start = index.start("quercus alba");
+        int end = index.end("quercus alba", start);
+        assertEquals(2, end - start);
+        assertEquals(1, index.getItemIndex(start));
+        assertEquals(8, index.getItemIndex(start + 1));
+    }
+
+    @Test
+    public void keys_areLowercasedAndSorted() {
+        for (int i = 1; i < index.size(); i++) {
+            assertTrue(index.getKey(i - 1).compareTo(index.getKey(i)) <= 0);
+        }
+        for (int i = 0; i < index.size(); i++) {
+            assertEquals(ITEMS.get(index.getItemIndex(i)).toLowerCase(Locale.US), index.getKey(i));
+        }
+    }
+
+    @Test
+    public void matches_followKeyOrder() {
+        assertArrayEquals(new int[]{1, 8, 4}, find("q"));
+        assertArrayEquals(new int[]{3}, find("ab"));
+    }
+
+    @Test
+    public void matchesScan() {
+        Random random = new Random(42);
+        List<String> items = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            items.add(randomWord(random, 1 + random.nextInt(6)));
+        }
+        final List<String> keys = new ArrayList<>();
+        for (String item : items) {
+            keys.add(item.toLowerCase(Locale.US));
+        }
+        PrefixSearchIndex randomIndex = new PrefixSearchIndex(items, Locale.US);
+
+        for (int i = 0; i < 2000; i++) {
+            String prefix = randomIndex.normalize(randomWord(random, random.nextInt(4)));
+            List<Integer> expected = new ArrayList<>();
+            for (int j = 0; j < items.size(); j++) {
+                if (keys.get(j).startsWith(prefix)) {
+                    expected.add(j);
+                }
+            }
+            // in the order of the keys, with equal keys in list order
+            Collections.sort(expected, new Comparator<Integer>() {
+                @Override
+                public int compare(Integer a, Integer b) {
+                    int result = keys.get(a).compareTo(keys.get(b));
+                    return result != 0 ? result : a.compareTo(b);
+                }
+            });
+
+            int start = randomIndex.start(prefix);
+            int[] found = itemIndices(randomIndex, start, randomIndex.end(prefix, start));
+            assertEquals(prefix, expected.size(), found.length);
+            for (int j = 0; j < found.length; j++) {
+                assertEquals(prefix, (int) expected.get(j), found[j]);
+            }
+        }
+    }
+
+    private int[] find(String prefix) {
+        String normalized = index.normalize(prefix);
+        int start = index.start(normalized);
+        return itemIndices(index, start, index.end(normalized, start));
+    }
+
+    // the items equal to the text, which sort first among the items starting with it
+    private int[] findExactly(String text) {
+        int start = index.start(text);
+        int end = start;
+        while (end < index.size() && index.getKey(end).equals(text)) {
+            end++;
+        }
+        return itemIndices(index, start, end);
+    }
+
+    private static int[] itemIndices(PrefixSearchIndex index, int start, int end) {
+        int[] indices = new int[end - start];
+        for (int i = start; i < end; i++) {
+            indices[i - start] = index.getItemIndex(i);
+        }
+        return indices;
+    }
+
+    private void assertEmptyRange(String prefix, int position) {
+        int start = index.start(prefix);
+        assertEquals(prefix, position, start);
+        assertEquals(prefix, start, index.end(prefix, start));
+    }
+
+    private static String randomWord(Random random, int length) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            char c = (char) ('a' + random.nextInt(3));
+            word.append(random.nextBoolean() ? Character.toUpperCase(c) : c);
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,177 @@
+package com.azavea.androidvalidatedforms.utils;
+
+import com.github.msarhan.ummalqura.calendar.UmmalquraCalendar;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the conversions of {@link UmmalquraTable} at the edges of the table and of the epoch, and against
+ * {@link UmmalquraCalendar}.
+ */
+public class UmmalquraTableTest {
+
+    private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000;
+    private static final long MILLIS_PER_HOUR = 60 * 60 * 1000;
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    private final UmmalquraTable.HijriDate date = new UmmalquraTable.HijriDate();
+
+    @Test
+    public void toEpochDay_roundsDownBeforeEpoch() {
+        assertEquals(0, UmmalquraTable.toEpochDay(0L, UTC));
+        assertEquals(0, UmmalquraTable.toEpochDay(MILLIS_PER_DAY - 1, UTC));
+        assertEquals(1, UmmalquraTable.toEpochDay(MILLIS_PER_DAY, UTC));
+        assertEquals(-1, UmmalquraTable.toEpochDay(-1L, UTC));
+        assertEquals(-1, UmmalquraTable.toEpochDay(-MILLIS_PER_DAY, UTC));
+        assertEquals(-2, UmmalquraTable.toEpochDay(-MILLIS_PER_DAY - 1, UTC));
+    }
+
+    @Test
+    public void toEpochDay_usesTimeZone() {
+        TimeZone east = TimeZone.getTimeZone("GMT+03:00");
+        assertEquals(0, UmmalquraTable.toEpochDay(-3 * MILLIS_PER_HOUR, east));
+        assertEquals(-1, UmmalquraTable.toEpochDay(-3 * MILLIS_PER_HOUR - 1, east));
+
+        TimeZone west = TimeZone.getTimeZone("GMT-05:00");
+        assertEquals(-1, UmmalquraTable.toEpochDay(0L, west));
+        assertEquals(0, UmmalquraTable.toEpochDay(5 * MILLIS_PER_HOUR, west));
+    }
+
+    @Test
+    public void fromEpochDay_convertsKnownDates() {
+        // January 1, 1970
+        assertDate(0, 1389, 9, 22);
+        // December 31, 1969
+        assertDate(-1, 1389, 9, 21);
+        // October 14, 2015, the first day of 1437
+        assertDate(16722, 1437, 0, 1);
+        assertDate(16721, 1436, 11, 30);
+        // March 14, 1937, the first day of the table
+        assertDate(-11981, UmmalquraTable.MIN_YEAR, 0, 1);
+    }
+
+    @Test
+    public void toEpochDay_convertsKnownDates() {
+        assertEquals(0, UmmalquraTable.toEpochDay(1389, 9, 22));
+        assertEquals(-1, UmmalquraTable.toEpochDay(1389, 9, 21));
+        assertEquals(16722, UmmalquraTable.toEpochDay(1437, 0, 1));
+        assertEquals(-11981, UmmalquraTable.toEpochDay(UmmalquraTable.MIN_YEAR, 0, 1));
+    }
+
+    @Test
+    public void tableBoundaries() {
+        long first = UmmalquraTable.toEpochDay(UmmalquraTable.MIN_YEAR, 0, 1);
+        assertTrue(UmmalquraTable.isSupported(first));
+        assertFalse(UmmalquraTable.isSupported(first - 1));
+        assertFalse(UmmalquraTable.fromEpochDay(first - 1, date));
+
+        int lastLength = UmmalquraTable.lengthOfMonth(UmmalquraTable.MAX_YEAR, 11);
+        long last = UmmalquraTable.toEpochDay(UmmalquraTable.MAX_YEAR, 11, lastLength);
+        assertTrue(UmmalquraTable.isSupported(last));
+        assertFalse(UmmalquraTable.isSupported(last + 1));
+        assertFalse(UmmalquraTable.fromEpochDay(last + 1, date));
+        assertDate(last, UmmalquraTable.MAX_YEAR, 11, lastLength);
+
+        assertFalse(UmmalquraTable.isSupported(Long.MIN_VALUE));
+        assertFalse(UmmalquraTable.isSupported(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void fromEpochDay_leavesDateUnchangedOutsideTable() {
+        date.year = 1;
+        date.month = 2;
+        date.day = 3;
+        assertFalse(UmmalquraTable.fromEpochDay(UmmalquraTable.toEpochDay(UmmalquraTable.MIN_YEAR, 0, 1) - 1, date));
+        assertEquals(1, date.year);
+        assertEquals(2, date.month);
+        assertEquals(3, date.day);
+    }
+
+    @Test
+    public void toEpochDay_rejectsDatesOutsideTable() {
+        int length = UmmalquraTable.lengthOfMonth(1437, 0);
+        int[][] invalid = {
+                {UmmalquraTable.MIN_YEAR - 1, 11, 1},
+                {UmmalquraTable.MAX_YEAR + 1, 0, 1},
+                {1437, -1, 1},
+                {1437, 12, 1},
+                {1437, 0, 0},
+                {1437, 0, length + 1},
+                {UmmalquraTable.MAX_YEAR, 11, UmmalquraTable.lengthOfMonth(UmmalquraTable.MAX_YEAR, 11) + 1}
+        };
+        for (int[] hijri : invalid) {
+            try {
+                UmmalquraTable.toEpochDay(hijri[0], hijri[1], hijri[2]);
+                fail("Accepted " + hijri[0] + "/" + (hijri[1] + 1) + "/" + hijri[2]);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void lengthOfMonth_rejectsMonthsOutsideTable() {
+        int[][] invalid = {{UmmalquraTable.MIN_YEAR - 1, 11}, {UmmalquraTable.MAX_YEAR + 1, 0}, {1437, -1}, {1437, 12}};
+        for (int[] hijri : invalid) {
+            try {
+                UmmalquraTable.lengthOfMonth(hijri[0], hijri[1]);
+                fail("Accepted " + hijri[0] + "/" + (hijri[1] + 1));
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void everyDayRoundTrips() {
+        long first = UmmalquraTable.toEpochDay(UmmalquraTable.MIN_YEAR, 0, 1);
+        int lastLength = UmmalquraTable.lengthOfMonth(UmmalquraTable.MAX_YEAR, 11);
+        long last = UmmalquraTable.toEpochDay(UmmalquraTable.MAX_YEAR, 11, lastLength);
+
+        int year = UmmalquraTable.MIN_YEAR;
+        int month = 0;
+        int day = 1;
+        for (long epochDay = first; epochDay <= last; epochDay++) {
+            assertDate(epochDay, year, month, day);
+            assertEquals(epochDay, UmmalquraTable.toEpochDay(year, month, day));
+
+            // the next day
+            int length = UmmalquraTable.lengthOfMonth(year, month);
+            assertTrue(length == 29 || length == 30);
+            if (++day > length) {
+                day = 1;
+                if (++month == 12) {
+                    month = 0;
+                    year++;
+                }
+            }
+        }
+        assertEquals(UmmalquraTable.MAX_YEAR + 1, year);
+    }
+
+    @Test
+    public void agreesWithUmmalquraCalendar() {
+        long first = UmmalquraTable.toEpochDay(UmmalquraTable.MIN_YEAR, 0, 1);
+        long last = UmmalquraTable.toEpochDay(UmmalquraTable.MAX_YEAR, 11, 1);
+        UmmalquraCalendar calendar = new UmmalquraCalendar(Locale.US);
+        calendar.setTimeZone(UTC);
+        for (long epochDay = first; epochDay <= last; epochDay += 13) {
+            calendar.setTimeInMillis(epochDay * MILLIS_PER_DAY);
+            assertDate(epochDay, calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH),
+                    calendar.get(Calendar.DAY_OF_MONTH));
+        }
+    }
+
+    private void assertDate(long epochDay, int year, int month, int day) {
+        assertTrue(String.valueOf(epochDay), UmmalquraTable.fromEpochDay(epochDay, date));
+        assertEquals("year of " + epochDay, year, date.year);
+        assertEquals("month of " + epochDay, month, date.month);
+        assertEquals("day of " + epochDay, day, date.day);
+    }
+}
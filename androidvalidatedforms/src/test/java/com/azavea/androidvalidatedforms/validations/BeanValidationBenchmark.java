@@ -0,0 +1,140 @@
+package com.azavea.androidvalidatedforms.validations;
+
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Path;
+import javax.validation.Validator;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+
+import static org.junit.Assert.*;
+
+/**
+ * Times validating the changed fields of a form one property at a time, as each field does on its own, against
+ * validating the whole model object in a single pass and splitting the violations by property, as
+ * {@link com.azavea.androidvalidatedforms.FormController#validateInput()} does once enough fields have changed. Prints
+ * the time of each for a growing number of changed fields, which shows where the single pass starts to pay off; only
+ * the violations are checked, as timings depend on the machine.
+ */
+public class BeanValidationBenchmark {
+
+    private static final int WARM_UP_ROUNDS = 200;
+    private static final int ROUNDS = 500;
+
+    public static class Record {
+        @NotNull @Size(min = 2, max = 40) public String name1 = "a";
+        @NotNull @Size(min = 2, max = 40) public String name2 = "valid";
+        @NotNull @Size(min = 2, max = 40) public String name3 = "b";
+        @NotNull @Size(min = 2, max = 40) public String name4 = "valid";
+        @Pattern(regexp = "[0-9]{5}") public String code1 = "1234";
+        @Pattern(regexp = "[0-9]{5}") public String code2 = "12345";
+        @Pattern(regexp = "[0-9]{5}") public String code3 = "abcde";
+        @Pattern(regexp = "[0-9]{5}") public String code4 = "54321";
+        @Min(0) @Max(150) public Integer count1 = -1;
+        @Min(0) @Max(150) public Integer count2 = 10;
+        @Min(0) @Max(150) public Integer count3 = 200;
+        @Min(0) @Max(150) public Integer count4 = 20;
+        @Min(-90) @Max(90) public Double latitude1 = 45.0;
+        @Min(-90) @Max(90) public Double latitude2 = 95.0;
+        @Min(-180) @Max(180) public Double longitude1 = -75.0;
+        @Min(-180) @Max(180) public Double longitude2 = 181.0;
+        @NotNull public String notes1 = null;
+        @NotNull public String notes2 = "notes";
+        @NotNull public Boolean flag1 = true;
+        @NotNull public Boolean flag2 = null;
+    }
+
+    @Test
+    public void validateChangedFields() {
+        Validator validator = HibernateValidatorInstance.getValidator();
+        Record record = new Record();
+        List<String> properties = new ArrayList<>();
+        for (Field field : Record.class.getFields()) {
+            properties.add(field.getName());
+        }
+        Collections.sort(properties);
+
+        // both ways find the same violations
+        Map<String, List<String>> single = byProperty(validator.validate(record));
+        for (String property : properties) {
+            List<String> expected = single.containsKey(property) ? single.get(property)
+                    : Collections.<String>emptyList();
+            List<String> found = byProperty(validator.validateProperty(record, property)).get(property);
+            assertEquals(property, expected, found != null ? found : Collections.<String>emptyList());
+        }
+        assertFalse(single.isEmpty());
+
+        for (int i = 0; i < WARM_UP_ROUNDS; i++) {
+            validateProperties(validator, record, properties, properties.size());
+            validateTogether(validator, record);
+        }
+
+        // time the single pass alongside each count of changed fields, so that both run in the same conditions
+        long togetherNanos = 0;
+        long[] propertiesNanos = new long[properties.size() + 1];
+        for (int changed = 1; changed <= properties.size(); changed++) {
+            for (int i = 0; i < ROUNDS; i++) {
+                long start = System.nanoTime();
+                validateProperties(validator, record, properties, changed);
+                propertiesNanos[changed] += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                validateTogether(validator, record);
+                togetherNanos += System.nanoTime() - start;
+            }
+        }
+
+        StringBuilder report = new StringBuilder(String.format(Locale.US,
+                "Bean validation of %d fields, us per form: single pass %d; per property, by changed fields:",
+                properties.size(), togetherNanos / ((long) ROUNDS * properties.size()) / 1000));
+        for (int changed = 1; changed <= properties.size(); changed++) {
+            report.append(String.format(Locale.US, " %d: %d", changed, propertiesNanos[changed] / ROUNDS / 1000));
+        }
+        System.out.println(report);
+    }
+
+    private static int validateProperties(Validator validator, Record record, List<String> properties, int count) {
+        int violations = 0;
+        for (int i = 0; i < count; i++) {
+            violations += validator.validateProperty(record, properties.get(i)).size();
+        }
+        return violations;
+    }
+
+    private static int validateTogether(Validator validator, Record record) {
+        return byProperty(validator.validate(record)).size();
+    }
+
+    /**
+     * Groups violations by the property they are on, as the message templates of each, sorted.
+     */
+    private static Map<String, List<String>> byProperty(Set<? extends ConstraintViolation<?>> violations) {
+        Map<String, List<String>> grouped = new HashMap<>();
+        for (ConstraintViolation<?> violation : violations) {
+            Iterator<Path.Node> nodes = violation.getPropertyPath().iterator();
+            String property = nodes.next().getName();
+            List<String> templates = grouped.get(property);
+            if (templates == null) {
+                templates = new ArrayList<>();
+                grouped.put(property, templates);
+            }
+            templates.add(violation.getMessageTemplate());
+            Collections.sort(templates);
+        }
+        return grouped;
+    }
+}
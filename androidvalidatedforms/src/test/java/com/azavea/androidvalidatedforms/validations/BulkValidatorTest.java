@@ -0,0 +1,173 @@
+package com.azavea.androidvalidatedforms.validations;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that {@link BulkValidator} finds the errors of each record the way a form does for each of its fields, and
+ * that its summaries only keep the text of the errors.
+ */
+public class BulkValidatorTest {
+
+    public static class Tree {
+        @NotNull @Size(min = 2, max = 20) public String species;
+        @Pattern(regexp = "[0-9]{5}") @Size(min = 5, max = 5) public String plot;
+        @Min(0) @Max(500) public Integer diameter;
+        @NotNull public String notes;
+        public long planted;
+        public double lean;
+
+        Tree(String species, String plot, Integer diameter, String notes) {
+            this.species = species;
+            this.plot = plot;
+            this.diameter = diameter;
+            this.notes = notes;
+        }
+    }
+
+    private static final List<FieldDefinition> FIELDS = Arrays.asList(
+            new FieldDefinition("species", "Species", true),
+            new FieldDefinition("plot", "Plot", false),
+            new FieldDefinition("diameter", "Diameter", false),
+            new FieldDefinition("notes", "Notes", false));
+
+    private final BulkValidator validator = new BulkValidator(FIELDS);
+
+    @Test
+    public void validRecord_hasNoErrors() {
+        assertTrue(validator.validateRecord(new Tree("Acer rubrum", "12345", 40, "")).isEmpty());
+    }
+
+    @Test
+    public void errors_followFieldOrder() {
+        List<ValidationError> errors = validator.validateRecord(new Tree("A", "abc", 600, "notes"));
+        assertEquals(Arrays.asList("species", "plot", "plot", "diameter"), fieldNames(errors));
+        for (ValidationError error : errors) {
+            assertTrue(error instanceof HibernationError);
+        }
+        assertEquals("{javax.validation.constraints.Size.message}",
+                ((HibernationError) errors.get(0)).getMessageTemplate());
+        assertEquals("{javax.validation.constraints.Max.message}",
+                ((HibernationError) errors.get(3)).getMessageTemplate());
+    }
+
+    @Test
+    public void nullValues_areOnlyCheckedForRequiredFields() {
+        // notes is annotated @NotNull but not required on the form, so its null value passes as it does on the form
+        List<ValidationError> errors = validator.validateRecord(new Tree(null, null, null, null));
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0) instanceof RequiredField);
+        assertEquals("species", errors.get(0).getFieldName());
+        assertEquals("Species", errors.get(0).getFieldLabel());
+    }
+
+    @Test
+    public void validate_summarizesInvalidRecordsInOrder() {
+        List<Tree> records = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            records.add(i % 7 == 0 ? new Tree("Acer", "1", i, null) : new Tree("Acer", "12345", 1, null));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            BulkValidator pooled = new BulkValidator(FIELDS, executor, 3);
+            pooled.setChunkSize(10);
+            List<RecordErrors> results = pooled.validate(records);
+
+            assertEquals(143, results.size());
+            for (int i = 0; i < results.size(); i++) {
+                RecordErrors result = results.get(i);
+                assertEquals(i * 7, result.getRecordIndex());
+                List<String> expected = result.getRecordIndex() > 500 ? Arrays.asList("plot", "plot", "diameter")
+                        : Arrays.asList("plot", "plot");
+                assertEquals(expected, fieldNames(result.getErrors()));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void range_isCheckedAfterModelConstraints() {
+        BulkValidator ranged = new BulkValidator(Arrays.asList(
+                new FieldDefinition("diameter", "Diameter", false, 0, 100, null)));
+
+        assertTrue(ranged.validateRecord(new Tree("Acer", "12345", 100, "")).isEmpty());
+
+        List<ValidationError> errors = ranged.validateRecord(new Tree("Acer", "12345", 150, ""));
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0) instanceof OutOfRangeError);
+
+        errors = ranged.validateRecord(new Tree("Acer", "12345", 600, ""));
+        assertEquals(2, errors.size());
+        assertTrue(errors.get(0) instanceof HibernationError);
+        assertTrue(errors.get(1) instanceof OutOfRangeError);
+
+        // null values have no range to check
+        assertTrue(ranged.validateRecord(new Tree("Acer", "12345", null, "")).isEmpty());
+    }
+
+    @Test
+    public void decimalRange_rejectsNaN() {
+        BulkValidator ranged = new BulkValidator(Arrays.asList(
+                new FieldDefinition("lean", "Lean", false, -1.0, 1.0, null)));
+        Tree tree = new Tree("Acer", "12345", 1, "");
+
+        tree.lean = 0.5;
+        assertTrue(ranged.validateRecord(tree).isEmpty());
+        tree.lean = 1.5;
+        assertTrue(ranged.validateRecord(tree).get(0) instanceof OutOfRangeError);
+        tree.lean = Double.NaN;
+        assertTrue(ranged.validateRecord(tree).get(0) instanceof OutOfRangeError);
+    }
+
+    @Test
+    public void emptyPrimitiveValue_isOnlyAnErrorWhenRequired() {
+        // a date field backed by a primitive long holds 0 when no date is set
+        Tree tree = new Tree("Acer", "12345", 1, "");
+        List<ValidationError> errors = new BulkValidator(Arrays.asList(
+                new FieldDefinition("planted", "Planted", true, null, null, 0L))).validateRecord(tree);
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0) instanceof RequiredField);
+        assertEquals("planted", errors.get(0).getFieldName());
+
+        assertTrue(new BulkValidator(Arrays.asList(new FieldDefinition("planted", "Planted", false, null, null, 0L)))
+                .validateRecord(tree).isEmpty());
+
+        tree.planted = 1476748800000L;
+        assertTrue(new BulkValidator(Arrays.asList(new FieldDefinition("planted", "Planted", true, null, null, 0L)))
+                .validateRecord(tree).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void halfRange_isRejected() {
+        new FieldDefinition("diameter", "Diameter", false, 0, null, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void missingModelField_isRejected() {
+        new BulkValidator(Arrays.asList(new FieldDefinition("height", "Height", false)))
+                .validateRecord(new Tree("Acer", "12345", 1, null));
+    }
+
+    private static List<String> fieldNames(List<ValidationError> errors) {
+        List<String> names = new ArrayList<>();
+        for (ValidationError error : errors) {
+            names.add(error.getFieldName());
+        }
+        return names;
+    }
+}
@@ -15,6 +15,7 @@ import com.azavea.androidvalidatedforms.controllers.CheckBoxController;
 import com.azavea.androidvalidatedforms.controllers.DatePickerController;
 import com.azavea.androidvalidatedforms.controllers.EditTextController;
 import com.azavea.androidvalidatedforms.controllers.FormSectionController;
+import com.azavea.androidvalidatedforms.controllers.IntFieldController;
 import com.azavea.androidvalidatedforms.controllers.SelectionController;
 import com.azavea.androidvalidatedforms.tasks.ValidationTask;
 
@@ -85,6 +86,10 @@ public class RecordFormActivity extends FormWithAppCompatActivity implements For
         section.addElement(new EditTextController(this, "HowMuch", "some double", "", true,
                 InputType.TYPE_CLASS_NUMBER|InputType.TYPE_NUMBER_FLAG_SIGNED|InputType.TYPE_NUMBER_FLAG_DECIMAL));
 
+        IntFieldController ageCtl = new IntFieldController(this, "HowOld", "an age", "", false);
+        ageCtl.setRange(0, 150);
+        section.addElement(ageCtl);
+
         section.addElement(new SelectionController(this, "FavoriteColor", "favorite color",
                 false, "Select", colors, colors));
 
@@ -28,6 +28,8 @@ public class TestModel {
 
     public Double HowMuch;
 
+    public Integer HowOld;
+
     public Date When;
 
     public ImageHolder Pic;